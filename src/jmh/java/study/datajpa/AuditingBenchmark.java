@@ -0,0 +1,67 @@
+package study.datajpa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * auditing.mode 별 Member insert 처리량. OFF 는 감사 필드를 채우지 않는 기준값이다.
+ */
+@State(Scope.Benchmark)
+public class AuditingBenchmark {
+
+	private static final int ROWS = 500;
+
+	@Param({ "OFF", "PER_ENTITY", "PER_TRANSACTION" })
+	public String mode;
+
+	private ConfigurableApplicationContext context;
+	private MemberRepository memberRepository;
+	private TransactionTemplate tx;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = SpringApplication.run(DataJpaApplication.class,
+				"--spring.main.web-application-type=none",
+				"--spring.datasource.url=jdbc:h2:mem:jmh-auditing;DB_CLOSE_DELAY=-1",
+				"--decorator.datasource.p6spy.enable-logging=false",
+				"--logging.level.org.hibernate.SQL=warn",
+				"--member-seed.count=0",
+				"--auditing.mode=" + mode);
+		memberRepository = context.getBean(MemberRepository.class);
+		tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void insertBatched() {
+		tx.executeWithoutResult(status -> {
+			List<Member> members = new ArrayList<>(ROWS);
+			for (int i = 0; i < ROWS; i++) {
+				members.add(new Member("audited" + i, i));
+			}
+			memberRepository.saveAllBatched(members, 100);
+			status.setRollbackOnly();
+		});
+	}
+}
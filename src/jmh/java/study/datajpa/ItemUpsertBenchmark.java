@@ -0,0 +1,82 @@
+package study.datajpa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.entity.Item;
+import study.datajpa.repository.ItemRepository;
+
+/**
+ * Item 저장: JPA saveAll(hibernate batch) 과 JDBC batch upsertAll 의 row 당 시간. 매번 rollback 한다.
+ */
+@State(Scope.Benchmark)
+public class ItemUpsertBenchmark {
+
+	private static final int ROWS = 2000;
+
+	private ConfigurableApplicationContext context;
+	private ItemRepository itemRepository;
+	private EntityManagerFactory emf;
+	private TransactionTemplate tx;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = SpringApplication.run(DataJpaApplication.class,
+				"--spring.main.web-application-type=none",
+				"--spring.datasource.url=jdbc:h2:mem:jmh-item;DB_CLOSE_DELAY=-1",
+				"--decorator.datasource.p6spy.enable-logging=false",
+				"--logging.level.org.hibernate.SQL=warn",
+				"--member-seed.count=0");
+		itemRepository = context.getBean(ItemRepository.class);
+		emf = context.getBean(EntityManagerFactory.class);
+		tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void saveAll() {
+		tx.executeWithoutResult(status -> {
+			itemRepository.saveAll(items("saveAll-"));
+			EntityManagerFactoryUtils.getTransactionalEntityManager(emf).flush();
+			status.setRollbackOnly();
+		});
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public int upsertAll() {
+		return tx.execute(status -> {
+			int inserted = itemRepository.upsertAll(items("upsertAll-"), 500);
+			status.setRollbackOnly();
+			return inserted;
+		});
+	}
+
+	private static List<Item> items(String prefix) {
+		List<Item> items = new ArrayList<>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			items.add(new Item(prefix + i));
+		}
+		return items;
+	}
+}
@@ -0,0 +1,70 @@
+package study.datajpa;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.OptimisticLockRetryExecutor;
+
+/**
+ * 4 스레드가 같은 회원을 수정할 때 비관적 락(findLockByUsername)과 낙관적 락(@Version + 재시도)의 갱신 한 번당 시간.
+ */
+@State(Scope.Benchmark)
+@Threads(4)
+public class MemberContentionBenchmark {
+
+	private ConfigurableApplicationContext context;
+	private MemberRepository memberRepository;
+	private OptimisticLockRetryExecutor retryExecutor;
+	private TransactionTemplate tx;
+	private Long memberId;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = SpringApplication.run(DataJpaApplication.class,
+				"--spring.main.web-application-type=none",
+				"--spring.datasource.url=jdbc:h2:mem:jmh-contention;DB_CLOSE_DELAY=-1",
+				"--decorator.datasource.p6spy.enable-logging=false",
+				"--logging.level.org.hibernate.SQL=warn",
+				"--member-seed.count=0",
+				"--optimistic-retry.max-attempts=1000",
+				"--optimistic-retry.initial-backoff=1ms",
+				"--optimistic-retry.max-backoff=20ms");
+		memberRepository = context.getBean(MemberRepository.class);
+		retryExecutor = context.getBean(OptimisticLockRetryExecutor.class);
+		tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		memberId = memberRepository.save(new Member("contended", 0)).getId();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public void pessimistic() {
+		tx.executeWithoutResult(status -> {
+			Member locked = memberRepository.findLockByUsername("contended").get(0);
+			locked.setAge(locked.getAge() + 1);
+		});
+	}
+
+	@Benchmark
+	public Member optimistic() {
+		return retryExecutor.execute(() -> {
+			Member found = memberRepository.findById(memberId).get();
+			found.setAge(found.getAge() + 1);
+			return found;
+		});
+	}
+}
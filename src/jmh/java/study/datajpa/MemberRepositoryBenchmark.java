@@ -0,0 +1,224 @@
+package study.datajpa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.index.IndexedMember;
+import study.datajpa.index.MemberIndex;
+import study.datajpa.repository.CompiledMemberSpec;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSpec;
+import study.datajpa.repository.NestedClosedProjection;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.repository.UsernameOnly;
+import study.datajpa.repository.UsernameOnlyDto;
+
+/**
+ * 임베디드 H2(in-memory) 위에서 repository / projection 핫패스를 측정한다.
+ * 쓰기 벤치마크는 flush 까지 실행한 뒤 rollback 해서 반복해도 테이블 크기가 변하지 않는다.
+ */
+@State(Scope.Benchmark)
+public class MemberRepositoryBenchmark {
+
+	private static final int WRITE_ROWS = 100;
+
+	private ConfigurableApplicationContext context;
+	private MemberRepository memberRepository;
+	private MemberIndex memberIndex;
+	private EntityManagerFactory emf;
+	private TransactionTemplate tx;
+	private PageRequest pageRequest;
+	// 검색값을 매번 바꿔서 값이 다른 같은 shape 의 검색을 재현한다.
+	private int searchSeq;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = SpringApplication.run(DataJpaApplication.class,
+				"--spring.main.web-application-type=none",
+				"--spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+				"--decorator.datasource.p6spy.enable-logging=false",
+				"--logging.level.org.hibernate.SQL=warn",
+				"--member-seed.count=0",
+				"--member-index.enabled=true");
+		memberRepository = context.getBean(MemberRepository.class);
+		memberIndex = context.getBean(MemberIndex.class);
+		emf = context.getBean(EntityManagerFactory.class);
+		tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		pageRequest = PageRequest.of(3, 20, Sort.by(Sort.Direction.DESC, "username"));
+
+		Team team = context.getBean(TeamRepository.class).save(new Team("benchTeam"));
+		List<Member> members = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			members.add(new Member("bench" + (i % 100), i % 50, team));
+		}
+		memberRepository.saveAllBatched(members, 100);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	// SQL 기준값. member-index.enabled 라서 트랜잭션 밖에서는 MemberIndexRoutingAspect 가 인덱스로 보내므로
+	// 읽기/쓰기 트랜잭션(롤백) 안에서 실행해서 원래 쿼리를 탄다.
+	@Benchmark
+	public List<Member> findByUsername() {
+		return inReadWriteTransaction(() -> memberRepository.findByUsername("bench7"));
+	}
+
+	// 같은 repository 호출을 인덱스 + 2차 캐시로
+	@Benchmark
+	public List<Member> findByUsernameRouted() {
+		return memberRepository.findByUsername("bench7");
+	}
+
+	// 같은 조회를 메모리 인덱스로 (SQL 없음)
+	@Benchmark
+	public List<IndexedMember> indexFindByUsername() {
+		return memberIndex.findByUsername("bench7");
+	}
+
+	// findByAge(int, Pageable) 의 @Query 는 age 조건이 없으므로 age 로 거르는 쿼리와 비교한다. (unpaged 라 count 없음)
+	@Benchmark
+	public List<Member> findByAgeUnpaged() {
+		return inReadWriteTransaction(() -> memberRepository.findByAgeWithCachedCount(10, Pageable.unpaged()).getContent());
+	}
+
+	@Benchmark
+	public List<IndexedMember> indexFindByAge() {
+		return memberIndex.findByAge(10);
+	}
+
+	@Benchmark
+	public Page<Member> findByAgePaged() {
+		return memberRepository.findByAge(10, pageRequest);
+	}
+
+	// 같은 DTO 페이지를 엔티티 조회 + 변환으로 (-prof gc 로 할당량도 비교)
+	@Benchmark
+	public Page<MemberDto> findMemberPageAsEntities() {
+		return tx.execute(status -> memberRepository.findAll(pageRequest).map(MemberDto::new));
+	}
+
+	@Benchmark
+	public Page<MemberDto> findMemberDtoPage() {
+		return memberRepository.findMemberDtoPage(pageRequest);
+	}
+
+	@Benchmark
+	public List<MemberDto> findMemberDto() {
+		return memberRepository.findMemberDto();
+	}
+
+	@Benchmark
+	public List<String> findProjectionsOpen() {
+		List<String> result = new ArrayList<>();
+		for (UsernameOnly projection : memberRepository.findProjectionsByUsername("bench7", UsernameOnly.class)) {
+			result.add(projection.getUsername());
+		}
+		return result;
+	}
+
+	@Benchmark
+	public List<String> findProjectionsNestedClosed() {
+		List<String> result = new ArrayList<>();
+		for (NestedClosedProjection projection : memberRepository.findProjectionsByUsername("bench7", NestedClosedProjection.class)) {
+			result.add(projection.getTeam().getName());
+		}
+		return result;
+	}
+
+	@Benchmark
+	public List<UsernameOnlyDto> findProjectionsDto() {
+		return memberRepository.findProjectionsByUsername("bench7", UsernameOnlyDto.class);
+	}
+
+	@Benchmark
+	public List<UsernameOnlyDto> findUsernameOnlySelectExpression() {
+		return memberRepository.findUsernameOnlyByUsername("bench7");
+	}
+
+	@Benchmark
+	public List<Member> searchSpecification() {
+		return memberRepository.findAll(nextSearch());
+	}
+
+	@Benchmark
+	public List<Member> searchCompiledSpecification() {
+		return memberRepository.findAllCompiled(nextSearch());
+	}
+
+	private CompiledMemberSpec nextSearch() {
+		return MemberSpec.username("bench" + (searchSeq++ % 100)).and(MemberSpec.teamName("benchTeam"));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(WRITE_ROWS)
+	public void save() {
+		inRollback(() -> {
+			for (int i = 0; i < WRITE_ROWS; i++) {
+				memberRepository.save(new Member("save" + i, i));
+			}
+		});
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(WRITE_ROWS)
+	public void saveAllBatched() {
+		inRollback(() -> {
+			List<Member> members = new ArrayList<>(WRITE_ROWS);
+			for (int i = 0; i < WRITE_ROWS; i++) {
+				members.add(new Member("batched" + i, i));
+			}
+			memberRepository.saveAllBatched(members, 50);
+		});
+	}
+
+	@Benchmark
+	public void bulkAgePlus() {
+		inRollback(() -> memberRepository.bulkAgePlus(25));
+	}
+
+	private <T> T inReadWriteTransaction(Supplier<T> work) {
+		return tx.execute(status -> {
+			T result = work.get();
+			status.setRollbackOnly();
+			return result;
+		});
+	}
+
+	private void inRollback(Runnable work) {
+		tx.executeWithoutResult(status -> {
+			work.run();
+			EntityManager em = EntityManagerFactoryUtils.getTransactionalEntityManager(emf);
+			if (em != null) {
+				em.flush();
+			}
+			status.setRollbackOnly();
+		});
+	}
+}
@@ -2,29 +2,58 @@ package study.datajpa;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableAsync;
 
-@EnableJpaAuditing
+import study.datajpa.audit.AuditClock;
+import study.datajpa.audit.AuditingMode;
+import study.datajpa.audit.TransactionScopedValue;
+
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+@EnableAsync
 @SpringBootApplication
 public class DataJpaApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(DataJpaApplication.class, args);
+		SpringApplication application = new SpringApplication(DataJpaApplication.class);
+		// 기동 단계별 시간 기록 (/startup)
+		application.setApplicationStartup(new BufferingApplicationStartup(4096));
+		application.run(args);
 	}
 
 	@Bean
-	public AuditorAware<String> auditorProvider(){
+	public AuditorAware<String> auditorProvider(@Value("${auditing.mode:PER_TRANSACTION}") AuditingMode mode){
 //		return new AuditorAware<String>() {
 //			@Override
 //			public Optional<String> getCurrentAuditor(){
 //				return Optional.of(UUID.randomUUID().toString());
 //			}
 //		};
-		return () -> Optional.of(UUID.randomUUID().toString());
+		Supplier<String> auditor = () -> UUID.randomUUID().toString();
+		switch (mode) {
+		case OFF:
+			return Optional::empty;
+		case PER_ENTITY:
+			return () -> Optional.of(auditor.get());
+		default:
+			// SecureRandom 기반 UUID 생성을 트랜잭션당 한 번으로 줄인다.
+			Supplier<String> perTransaction = new TransactionScopedValue<>(auditor);
+			return () -> Optional.of(perTransaction.get());
+		}
+	}
+
+	@Bean
+	public DateTimeProvider auditingDateTimeProvider(AuditClock auditClock) {
+		// JpaBaseEntity 와 같은 AuditClock 을 쓴다.
+		return () -> Optional.ofNullable(auditClock.now());
 	}
 }
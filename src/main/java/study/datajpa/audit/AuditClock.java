@@ -0,0 +1,33 @@
+package study.datajpa.audit;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 감사(auditing) 시간. auditing.mode 를 따른다.
+ * PER_TRANSACTION 이면 같은 트랜잭션에서 저장되는 엔티티들은 같은 시간을 공유하고, OFF 면 null 이다.
+ * spring data auditing(DateTimeProvider)과 JpaBaseEntityListener 가 같이 사용한다.
+ */
+@Component
+public class AuditClock {
+
+	private final TransactionScopedValue<LocalDateTime> perTransaction = new TransactionScopedValue<>(LocalDateTime::now);
+	private final AuditingMode mode;
+
+	public AuditClock(@Value("${auditing.mode:PER_TRANSACTION}") AuditingMode mode) {
+		this.mode = mode;
+	}
+
+	public LocalDateTime now() {
+		switch (mode) {
+		case OFF:
+			return null;
+		case PER_ENTITY:
+			return LocalDateTime.now();
+		default:
+			return perTransaction.get();
+		}
+	}
+}
@@ -0,0 +1,10 @@
+package study.datajpa.audit;
+
+public enum AuditingMode {
+	// 엔티티마다 auditor, 현재 시간을 새로 구한다. (기존 방식)
+	PER_ENTITY,
+	// 트랜잭션(요청)마다 한 번만 구한다. batch insert 는 모든 row 가 같은 값을 가진다.
+	PER_TRANSACTION,
+	// @CreatedBy, @CreatedDate 등을 채우지 않는다. (측정용)
+	OFF
+}
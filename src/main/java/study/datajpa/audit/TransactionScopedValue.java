@@ -0,0 +1,48 @@
+package study.datajpa.audit;
+
+import java.util.function.Supplier;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 트랜잭션마다 delegate 를 한 번만 호출하고 같은 값을 돌려준다. 트랜잭션 밖에서는 매번 호출한다.
+ * 값은 현재 트랜잭션의 synchronization 에 둔다. REQUIRES_NEW 로 바깥 트랜잭션이 suspend 되면 그 synchronization 도
+ * 목록에서 빠지므로 안쪽 트랜잭션은 자기 값을 따로 구하고, 끝나면 바깥 값이 다시 보인다.
+ */
+public final class TransactionScopedValue<T> implements Supplier<T> {
+
+	private final Supplier<T> delegate;
+
+	public TransactionScopedValue(Supplier<T> delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public T get() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return delegate.get();
+		}
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			if (synchronization instanceof Holder && ((Holder<?>) synchronization).owner == this) {
+				return ((Holder<T>) synchronization).value;
+			}
+		}
+		Holder<T> holder = new Holder<>(this, delegate.get());
+		TransactionSynchronizationManager.registerSynchronization(holder);
+		return holder.value;
+	}
+
+	// 트랜잭션이 끝나면 synchronization 목록과 함께 버려진다.
+	private static final class Holder<T> implements TransactionSynchronization {
+
+		private final TransactionScopedValue<T> owner;
+		private final T value;
+
+		private Holder(TransactionScopedValue<T> owner, T value) {
+			this.owner = owner;
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package study.datajpa.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import study.datajpa.repository.MemberDtoPageCache;
+
+@RestController
+@RequiredArgsConstructor
+public class CacheStatsController {
+
+	private final EntityManagerFactory emf;
+	private final ObjectProvider<MemberDtoPageCache> memberDtoPageCache;
+
+	// 2차 캐시 region 별 hit / miss / put, /members 페이지 off-heap 캐시
+	@GetMapping("/cache/stats")
+	public Map<String, Map<String, Long>> stats() {
+		Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+		Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+		for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+			CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+			if (region != null) {
+				result.put(regionName, counts(region.getHitCount(), region.getMissCount(), region.getPutCount()));
+			}
+		}
+		result.put("query", counts(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+				statistics.getQueryCachePutCount()));
+		memberDtoPageCache.ifAvailable(cache -> result.put("memberDtoPage", cache.stats()));
+		return result;
+	}
+
+	private static Map<String, Long> counts(long hit, long miss, long put) {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		counts.put("hit", hit);
+		counts.put("miss", miss);
+		counts.put("put", put);
+		return counts;
+	}
+}
@@ -0,0 +1,37 @@
+package study.datajpa.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import study.datajpa.datasource.DataSourceRoute;
+import study.datajpa.datasource.DataSourceRoutingConfig;
+import study.datajpa.datasource.DataSourceRoutingMetrics;
+import study.datajpa.datasource.ReplicaLagMonitor;
+
+@RestController
+@ConditionalOnProperty(name = "datasource-routing.enabled", havingValue = "true")
+public class DataSourceMetricsController {
+
+	private final DataSourceRoutingMetrics metrics;
+	private final ReplicaLagMonitor lagMonitor;
+	private final Map<DataSourceRoute, HikariDataSource> pools;
+
+	public DataSourceMetricsController(DataSourceRoutingMetrics metrics, ReplicaLagMonitor lagMonitor,
+			@Qualifier("primaryDataSource") HikariDataSource primary, @Qualifier("replicaDataSource") HikariDataSource replica) {
+		this.metrics = metrics;
+		this.lagMonitor = lagMonitor;
+		this.pools = DataSourceRoutingConfig.pools(primary, replica);
+	}
+
+	// 풀별 커넥션 획득 수 / active / idle / waiting, replica 지연과 fallback 횟수
+	@GetMapping("/metrics/datasources")
+	public Map<String, Object> datasources() {
+		return metrics.snapshot(pools, lagMonitor);
+	}
+}
@@ -1,30 +1,52 @@
 package study.datajpa.controller;
 
-import javax.annotation.PostConstruct;
-
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
-import lombok.RequiredArgsConstructor;
+import study.datajpa.dto.CursorPageDto;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberCursor;
+import study.datajpa.repository.MemberDtoPageCache;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberUsernameCache;
+import study.datajpa.web.JdbcBulkhead;
 
 @RestController
-@RequiredArgsConstructor
 public class MemberController {
 
 	private final MemberRepository memberRepository;
+	private final MemberUsernameCache memberUsernameCache;
+	// member-dto-page-cache.enabled 일 때만 있다
+	private final ObjectProvider<MemberDtoPageCache> memberDtoPageCache;
+	// web-execution.mode 에 따라 서블릿 스레드에서 값을, 또는 JDBC bulkhead 에서 CompletableFuture 를 반환
+	private final JdbcBulkhead jdbcBulkhead;
+	private final int maxPageSize;
+
+	public MemberController(MemberRepository memberRepository, MemberUsernameCache memberUsernameCache,
+			ObjectProvider<MemberDtoPageCache> memberDtoPageCache, JdbcBulkhead jdbcBulkhead,
+			@Value("${spring.data.web.pageable.max-page-size:2000}") int maxPageSize) {
+		this.memberRepository = memberRepository;
+		this.memberUsernameCache = memberUsernameCache;
+		this.memberDtoPageCache = memberDtoPageCache;
+		this.jdbcBulkhead = jdbcBulkhead;
+		this.maxPageSize = maxPageSize;
+	}
 
 	@GetMapping("/members/{id}")
-	public String findMember(@PathVariable("id") Long id) {
-		Member member = memberRepository.findById(id).get();
-		return member.getUsername();
+	public Object findMember(@PathVariable("id") Long id) {
+		// 엔티티 전체 대신 username 만 캐시에서 조회
+		return jdbcBulkhead.execute(() -> memberUsernameCache.get(id).get());
 	}
 
 	// 권장하지 않음
@@ -34,18 +56,45 @@ public class MemberController {
 	}
 
 	@GetMapping("/members")
-	public Page<MemberDto> list(@PageableDefault(size = 12, sort = "username", direction = Sort.Direction.DESC) Pageable pageable) {
+	public Object list(@PageableDefault(size = 12, sort = "username", direction = Sort.Direction.DESC) Pageable pageable) {
 		//Page<Member> page = memberRepository.findAll(pageable);
 		//Page<MemberDto> map = page.map(member -> new MemberDto(member.getId(),member.getUsername(),null));
 		//Page<MemberDto> pageDto = page.map(MemberDto::new);
-		return memberRepository.findAll(pageable).map(MemberDto::new);
+		//return memberRepository.findAll(pageable).map(MemberDto::new);
+		// 자주 요청되는 정렬된 페이지는 off-heap 캐시에서
+		MemberDtoPageCache cache = memberDtoPageCache.getIfAvailable();
+		if (cache == null) {
+			return jdbcBulkhead.execute(() -> memberRepository.findMemberDtoPage(pageable));
+		}
+		return jdbcBulkhead.execute(() -> cache.get(pageable, () -> memberRepository.findMemberDtoPage(pageable)));
+	}
+
+	// keyset 페이징: /members?mode=keyset&cursor=... (count 쿼리 없음, 깊은 페이지도 비용 일정)
+	@GetMapping(value = "/members", params = "mode=keyset")
+	public Object listKeyset(@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "size", defaultValue = "12") int size) {
+		if (size < 1) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be positive: " + size);
+		}
+		// Pageable 과 같이 max-page-size 를 넘으면 잘라낸다
+		int pageSize = Math.min(size, maxPageSize);
+		MemberCursor after;
+		try {
+			after = cursor == null ? null : MemberCursor.decode(cursor);
+		} catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+		}
+		return jdbcBulkhead.execute(() -> keysetPage(after, pageSize));
 	}
 
-	@PostConstruct
-	public void init() {
-		for (int i = 0; i < 100; i++) {
-			memberRepository.save(new Member("user" + i, i));
+	private CursorPageDto<MemberDto> keysetPage(MemberCursor after, int size) {
+		Slice<Member> slice = memberRepository.findMemberKeyset(after, size);
+		String nextCursor = null;
+		if (slice.hasNext()) {
+			Member last = slice.getContent().get(slice.getNumberOfElements() - 1);
+			nextCursor = new MemberCursor(last.getUsername(), last.getId()).encode();
 		}
+		return new CursorPageDto<>(slice.map(MemberDto::new).getContent(), nextCursor);
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package study.datajpa.controller;
+
+import java.util.Map;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import study.datajpa.monitor.RepositoryMetrics;
+import study.datajpa.repository.ParallelPageExecutor;
+
+@RestController
+@RequiredArgsConstructor
+public class RepositoryMetricsController {
+
+	private final RepositoryMetrics repositoryMetrics;
+	private final ParallelPageExecutor parallelPageExecutor;
+
+	// repository 메서드별 호출 수, latency(p50, p99), statement / row / 결과 건수
+	@GetMapping("/metrics/repositories")
+	public Map<String, Map<String, Object>> repositories() {
+		return repositoryMetrics.snapshot();
+	}
+
+	// 병렬 / 순차 / 생략한 count 수와 병렬 실행으로 줄인 누적 latency
+	@GetMapping("/metrics/pages")
+	public Map<String, Object> pages() {
+		return parallelPageExecutor.snapshot();
+	}
+}
@@ -0,0 +1,26 @@
+package study.datajpa.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import study.datajpa.monitor.SqlDiagnostics;
+
+@RestController
+@RequiredArgsConstructor
+public class SqlDiagnosticsController {
+
+	private final SqlDiagnostics sqlDiagnostics;
+
+	// slow query / N + 1 / limit 없는 대량 조회 (최근 이벤트 + fingerprint, 메서드별 누적)
+	@GetMapping("/diagnostics/sql")
+	public Map<String, Object> sql() {
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("recent", sqlDiagnostics.recent());
+		result.put("aggregates", sqlDiagnostics.aggregates());
+		return result;
+	}
+}
@@ -0,0 +1,22 @@
+package study.datajpa.controller;
+
+import java.util.Map;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import study.datajpa.startup.StartupTimings;
+
+@RestController
+@RequiredArgsConstructor
+public class StartupController {
+
+	private final StartupTimings startupTimings;
+
+	// 기동 단계별 소요 시간(ms)
+	@GetMapping("/startup")
+	public Map<String, Long> startup() {
+		return startupTimings.snapshot();
+	}
+}
@@ -0,0 +1,6 @@
+package study.datajpa.datasource;
+
+public enum DataSourceRoute {
+	PRIMARY,
+	REPLICA
+}
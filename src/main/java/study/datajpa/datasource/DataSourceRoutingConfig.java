@@ -0,0 +1,104 @@
+package study.datajpa.datasource;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * datasource-routing.enabled=true 일 때 primary / replica 두 풀을 만들고 readOnly 트랜잭션을 replica 로 보낸다.
+ * p6spy 는 라우팅 datasource(dataSource) 하나만 감싸도록 두 풀은 decorator.datasource.exclude-beans 에 넣는다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource-routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("primary");
+		return dataSource;
+	}
+
+	@Bean
+	@ConfigurationProperties("datasource-routing.replica.hikari")
+	public HikariDataSource replicaDataSource(DataSourceProperties properties,
+			@Value("${datasource-routing.replica.url}") String url,
+			@Value("${datasource-routing.replica.username:${spring.datasource.username:}}") String username,
+			@Value("${datasource-routing.replica.password:${spring.datasource.password:}}") String password) {
+		HikariDataSource dataSource = DataSourceBuilder.create()
+				.type(HikariDataSource.class)
+				.driverClassName(properties.determineDriverClassName())
+				.url(url)
+				.username(username)
+				.password(password)
+				.build();
+		dataSource.setPoolName("replica");
+		return dataSource;
+	}
+
+	@Bean(destroyMethod = "shutdown")
+	public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") HikariDataSource primary,
+			@Qualifier("replicaDataSource") HikariDataSource replica,
+			@Value("${datasource-routing.heartbeat:true}") boolean heartbeat,
+			@Value("${datasource-routing.max-lag:5s}") Duration maxLag,
+			@Value("${datasource-routing.check-interval:1s}") Duration checkInterval) {
+		ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, replica, heartbeat, maxLag);
+		monitor.start(checkInterval);
+		return monitor;
+	}
+
+	@Bean
+	public DataSourceRoutingMetrics dataSourceRoutingMetrics() {
+		return new DataSourceRoutingMetrics();
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+			@Qualifier("replicaDataSource") HikariDataSource replica, ReplicaLagMonitor replicaLagMonitor,
+			DataSourceRoutingMetrics dataSourceRoutingMetrics) {
+		return new ReadWriteRoutingDataSource(primary, replica, replicaLagMonitor, dataSourceRoutingMetrics);
+	}
+
+	// 라우팅 판단은 커넥션을 얻는 시점(트랜잭션 시작)에 하므로 트랜잭션이 끝나면 커넥션을 반납해야 한다.
+	// (기본값 DELAYED_ACQUISITION_AND_HOLD 면 open-in-view 세션이 첫 트랜잭션의 커넥션을 계속 쓴다)
+	@Bean
+	public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+		return properties -> properties.put("hibernate.connection.handling_mode",
+				PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+	}
+
+	@Bean
+	public PlatformTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+		RoutingJpaTransactionManager transactionManager = new RoutingJpaTransactionManager();
+		transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+		return transactionManager;
+	}
+
+	public static Map<DataSourceRoute, HikariDataSource> pools(HikariDataSource primary, HikariDataSource replica) {
+		Map<DataSourceRoute, HikariDataSource> pools = new EnumMap<>(DataSourceRoute.class);
+		pools.put(DataSourceRoute.PRIMARY, primary);
+		pools.put(DataSourceRoute.REPLICA, replica);
+		return pools;
+	}
+}
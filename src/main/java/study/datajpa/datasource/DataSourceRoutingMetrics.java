@@ -0,0 +1,68 @@
+package study.datajpa.datasource;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+public class DataSourceRoutingMetrics {
+
+	private final Map<DataSourceRoute, LongAdder> acquired = new EnumMap<>(DataSourceRoute.class);
+	// readOnly 인데 primary 로 보낸 횟수
+	private final LongAdder lagFallbacks = new LongAdder();
+	private final LongAdder errorFallbacks = new LongAdder();
+
+	public DataSourceRoutingMetrics() {
+		for (DataSourceRoute route : DataSourceRoute.values()) {
+			acquired.put(route, new LongAdder());
+		}
+	}
+
+	void acquired(DataSourceRoute route) {
+		acquired.get(route).increment();
+	}
+
+	void lagFallback() {
+		lagFallbacks.increment();
+	}
+
+	void errorFallback() {
+		errorFallbacks.increment();
+	}
+
+	public long getAcquired(DataSourceRoute route) {
+		return acquired.get(route).sum();
+	}
+
+	public long getLagFallbacks() {
+		return lagFallbacks.sum();
+	}
+
+	public long getErrorFallbacks() {
+		return errorFallbacks.sum();
+	}
+
+	public Map<String, Object> snapshot(Map<DataSourceRoute, HikariDataSource> pools, ReplicaLagMonitor lagMonitor) {
+		Map<String, Object> result = new LinkedHashMap<>();
+		for (DataSourceRoute route : DataSourceRoute.values()) {
+			Map<String, Object> pool = new LinkedHashMap<>();
+			pool.put("acquired", getAcquired(route));
+			HikariPoolMXBean mxBean = pools.get(route).getHikariPoolMXBean();
+			if (mxBean != null) {
+				pool.put("active", mxBean.getActiveConnections());
+				pool.put("idle", mxBean.getIdleConnections());
+				pool.put("total", mxBean.getTotalConnections());
+				pool.put("waiting", mxBean.getThreadsAwaitingConnection());
+			}
+			result.put(route.name().toLowerCase(), pool);
+		}
+		result.put("replicaUsable", lagMonitor.isReplicaUsable());
+		result.put("replicaLagMillis", lagMonitor.getLagMillis());
+		result.put("lagFallbacks", getLagFallbacks());
+		result.put("errorFallbacks", getErrorFallbacks());
+		return result;
+	}
+}
@@ -0,0 +1,53 @@
+package study.datajpa.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * readOnly 트랜잭션은 replica, 그 외(쓰기, 트랜잭션 밖)는 primary.
+ * replica 가 지연되었거나 커넥션을 못 얻으면 primary 로 보낸다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+
+	private final DataSource primary;
+	private final DataSource replica;
+	private final ReplicaLagMonitor lagMonitor;
+	private final DataSourceRoutingMetrics metrics;
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (RoutingJpaTransactionManager.isBeginningReadOnly()) {
+			if (!lagMonitor.isReplicaUsable()) {
+				metrics.lagFallback();
+			} else {
+				try {
+					Connection connection = replica.getConnection();
+					metrics.acquired(DataSourceRoute.REPLICA);
+					return connection;
+				} catch (SQLException e) {
+					log.warn("replica connection failed, falling back to primary: {}", e.getMessage());
+					lagMonitor.markUnavailable();
+					metrics.errorFallback();
+				}
+			}
+		}
+		Connection connection = primary.getConnection();
+		metrics.acquired(DataSourceRoute.PRIMARY);
+		return connection;
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		throw new SQLFeatureNotSupportedException("routing datasource uses the pool credentials");
+	}
+}
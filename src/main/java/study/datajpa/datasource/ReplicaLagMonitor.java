@@ -0,0 +1,96 @@
+package study.datajpa.datasource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * primary 에 heartbeat 를 쓰고 replica 에 복제된 heartbeat 시각으로 지연을 잰다.
+ * 측정값에는 check-interval 만큼의 오차가 있으므로 max-lag 는 그보다 크게 잡는다.
+ * heartbeat 를 끄면 지연은 0 으로 보고 replica 연결만 확인한다.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+	private static final String CREATE_HEARTBEAT = "create table if not exists replication_heartbeat (id int primary key, beat_at timestamp not null)";
+	private static final String WRITE_HEARTBEAT = "merge into replication_heartbeat key (id) values (1, ?)";
+	private static final String READ_HEARTBEAT = "select beat_at from replication_heartbeat where id = 1";
+
+	private final JdbcTemplate primary;
+	private final JdbcTemplate replica;
+	private final boolean heartbeat;
+	private final long maxLagMillis;
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "replica-lag-monitor");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private volatile boolean replicaUsable;
+	// 측정 실패면 -1
+	private volatile long lagMillis = -1;
+
+	public ReplicaLagMonitor(DataSource primary, DataSource replica, boolean heartbeat, Duration maxLag) {
+		this.primary = new JdbcTemplate(primary);
+		this.replica = new JdbcTemplate(replica);
+		this.heartbeat = heartbeat;
+		this.maxLagMillis = maxLag.toMillis();
+	}
+
+	public void start(Duration checkInterval) {
+		if (heartbeat) {
+			try {
+				primary.execute(CREATE_HEARTBEAT);
+			} catch (RuntimeException e) {
+				log.warn("could not create replication_heartbeat on primary: {}", e.getMessage());
+			}
+		}
+		refresh();
+		scheduler.scheduleWithFixedDelay(this::refresh, checkInterval.toMillis(), checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	public void refresh() {
+		try {
+			if (!heartbeat) {
+				replica.queryForObject("select 1", Integer.class);
+				lagMillis = 0;
+				replicaUsable = true;
+				return;
+			}
+			long now = System.currentTimeMillis();
+			primary.update(WRITE_HEARTBEAT, new Timestamp(now));
+			Timestamp replicated = replica.queryForObject(READ_HEARTBEAT, Timestamp.class);
+			lagMillis = Math.max(0, now - replicated.getTime());
+			replicaUsable = lagMillis <= maxLagMillis;
+		} catch (RuntimeException e) {
+			// 테이블/행이 없거나 replica 가 내려간 경우
+			lagMillis = -1;
+			replicaUsable = false;
+		}
+	}
+
+	// 커넥션 실패 시 다음 측정까지 replica 를 쓰지 않는다.
+	public void markUnavailable() {
+		replicaUsable = false;
+	}
+
+	public boolean isReplicaUsable() {
+		return replicaUsable;
+	}
+
+	public long getLagMillis() {
+		return lagMillis;
+	}
+
+	public void shutdown() {
+		scheduler.shutdownNow();
+	}
+}
@@ -0,0 +1,32 @@
+package study.datajpa.datasource;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * 트랜잭션 시작(커넥션 획득) 동안 readOnly 여부를 노출한다.
+ * TransactionSynchronizationManager 의 readOnly 는 doBegin 이 끝난 뒤에 설정되므로 라우팅에 쓸 수 없다.
+ */
+public class RoutingJpaTransactionManager extends JpaTransactionManager {
+
+	private static final ThreadLocal<Boolean> BEGINNING_READ_ONLY = new ThreadLocal<>();
+
+	static boolean isBeginningReadOnly() {
+		return Boolean.TRUE.equals(BEGINNING_READ_ONLY.get());
+	}
+
+	@Override
+	protected void doBegin(Object transaction, TransactionDefinition definition) {
+		Boolean previous = BEGINNING_READ_ONLY.get();
+		BEGINNING_READ_ONLY.set(definition.isReadOnly());
+		try {
+			super.doBegin(transaction, definition);
+		} finally {
+			if (previous == null) {
+				BEGINNING_READ_ONLY.remove();
+			} else {
+				BEGINNING_READ_ONLY.set(previous);
+			}
+		}
+	}
+}
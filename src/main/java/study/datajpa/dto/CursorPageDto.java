@@ -0,0 +1,18 @@
+package study.datajpa.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+
+@Getter
+public class CursorPageDto<T> {
+	private final List<T> content;
+	private final String nextCursor;
+	private final boolean hasNext;
+
+	public CursorPageDto(List<T> content, String nextCursor) {
+		this.content = content;
+		this.nextCursor = nextCursor;
+		this.hasNext = nextCursor != null;
+	}
+}
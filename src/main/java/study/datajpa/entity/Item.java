@@ -8,6 +8,9 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
 import javax.persistence.Id;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Transient;
 import java.time.LocalDateTime;
 
 @Entity
@@ -21,6 +24,10 @@ public class Item implements Persistable<String> {
 	@CreatedDate
 	private LocalDateTime createdDate;
 
+	// auditing.mode=OFF 면 createdDate 가 채워지지 않으므로 새 엔티티 여부는 따로 가진다.
+	@Transient
+	private boolean isNew = true;
+
 	public Item(String id) {
 		this.id = id;
 	}
@@ -32,6 +39,12 @@ public class Item implements Persistable<String> {
 
 	@Override
 	public boolean isNew() {
-		return createdDate == null;
+		return isNew;
+	}
+
+	@PostPersist
+	@PostLoad
+	void markNotNew() {
+		isNew = false;
 	}
 }
\ No newline at end of file
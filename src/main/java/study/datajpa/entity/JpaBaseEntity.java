@@ -3,13 +3,13 @@ package study.datajpa.entity;
 import java.time.LocalDateTime;
 
 import javax.persistence.Column;
+import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
-import javax.persistence.PrePersist;
-import javax.persistence.PreUpdate;
 
 import lombok.Getter;
 
 @MappedSuperclass
+@EntityListeners(JpaBaseEntityListener.class)
 @Getter
 public class JpaBaseEntity {
 	
@@ -18,16 +18,13 @@ public class JpaBaseEntity {
 	
 	private LocalDateTime updatedDate;
 
-	@PrePersist
-	public void prePersist() {
-		LocalDateTime now = LocalDateTime.now();
+	void created(LocalDateTime now) {
 		createdDate = now;
 		updatedDate = now;
 	}
 
-	@PreUpdate
-	public void preUpdate() {
-		updatedDate = LocalDateTime.now();
+	void updated(LocalDateTime now) {
+		updatedDate = now;
 	}
 	
 }
\ No newline at end of file
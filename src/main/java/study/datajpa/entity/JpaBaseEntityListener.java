@@ -0,0 +1,44 @@
+package study.datajpa.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import study.datajpa.audit.AuditClock;
+
+/**
+ * JpaBaseEntity 의 생성/수정 시간을 AuditClock 으로 채운다. (OFF 면 null 이라 채우지 않는다)
+ * hibernate 가 SpringBeanContainer 로 생성하므로 AuditClock 빈을 주입받는다.
+ */
+public class JpaBaseEntityListener {
+
+	private final ObjectProvider<AuditClock> auditClock;
+
+	public JpaBaseEntityListener(ObjectProvider<AuditClock> auditClock) {
+		this.auditClock = auditClock;
+	}
+
+	@PrePersist
+	public void prePersist(JpaBaseEntity entity) {
+		LocalDateTime now = now();
+		if (now != null) {
+			entity.created(now);
+		}
+	}
+
+	@PreUpdate
+	public void preUpdate(JpaBaseEntity entity) {
+		LocalDateTime now = now();
+		if (now != null) {
+			entity.updated(now);
+		}
+	}
+
+	private LocalDateTime now() {
+		AuditClock clock = auditClock.getIfAvailable();
+		return clock == null ? LocalDateTime.now() : clock.now();
+	}
+}
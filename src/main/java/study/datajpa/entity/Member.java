@@ -1,21 +1,33 @@
 package study.datajpa.entity;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.NamedAttributeNode;
 import javax.persistence.NamedEntityGraph;
 import javax.persistence.NamedQuery;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import study.datajpa.index.MemberIndexListener;
+import study.datajpa.repository.MemberDtoPageCacheListener;
 
 @Entity
 @Getter
@@ -29,10 +41,19 @@ import lombok.ToString;
 )
 @NamedEntityGraph(name = "Member.all", attributeNodes =
 @NamedAttributeNode("team"))
+// keyset 페이징 (username desc, member_id desc) 정렬 키
+@Table(indexes = @Index(name = "idx_member_username_id", columnList = "username, member_id"))
+// allocationSize 만큼 pooled optimizer 가 메모리에서 id를 할당해서 insert 마다 시퀀스를 호출하지 않는다.
+@SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
+// 2차 캐시 (ehcache.xml 의 member region). bulk update 시 hibernate 가 region 을 비운다.
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")
+// member-index.enabled 일 때 메모리 인덱스 동기화, member-dto-page-cache.enabled 일 때 페이지 캐시 무효화
+@EntityListeners({ MemberIndexListener.class, MemberDtoPageCacheListener.class })
 public class Member extends BaseEntity {
 	
 	@Id
-	@GeneratedValue
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
 	@Column(name = "member_id")
 	private Long id;
 	
@@ -40,6 +61,11 @@ public class Member extends BaseEntity {
 	
 	private int age;
 	
+	// 낙관적 락. bulk update 도 직접 증가시켜야 한다.
+	@Version
+	@Setter(AccessLevel.NONE)
+	private Long version;
+	
 	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "team_id")
 	private Team team;
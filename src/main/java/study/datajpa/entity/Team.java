@@ -6,6 +6,9 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -15,6 +18,9 @@ import java.util.List;
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = { "id", "name" })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team")
+// Member.team 프록시, members 컬렉션은 hibernate.default_batch_fetch_size 개씩 in 쿼리로 초기화한다. (N + 1 방지, application.yml)
 public class Team  extends JpaBaseEntity{
 	
 	@Id
@@ -23,6 +29,10 @@ public class Team  extends JpaBaseEntity{
 	private Long id;
 	
 	private String name;
+
+	@Version
+	@Setter(AccessLevel.NONE)
+	private Long version;
 	
 	@OneToMany(mappedBy = "team")
 	List<Member> members = new ArrayList<>();
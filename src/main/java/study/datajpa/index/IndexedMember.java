@@ -0,0 +1,21 @@
+package study.datajpa.index;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class IndexedMember {
+
+	private final long id;
+	private final String username;
+	private final int age;
+	private final Long teamId;
+
+	IndexedMember(long id, String username, int age, Long teamId) {
+		this.id = id;
+		this.username = username;
+		this.age = age;
+		this.teamId = teamId;
+	}
+}
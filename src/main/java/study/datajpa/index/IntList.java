@@ -0,0 +1,44 @@
+package study.datajpa.index;
+
+import java.util.Arrays;
+
+// boxing 없는 int 목록 (username 별 slot 목록, 빈 slot 목록)
+final class IntList {
+
+	private int[] values = new int[4];
+	private int size;
+
+	void add(int value) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, size * 2);
+		}
+		values[size++] = value;
+	}
+
+	// 순서는 유지하지 않는다.
+	boolean remove(int value) {
+		for (int i = 0; i < size; i++) {
+			if (values[i] == value) {
+				values[i] = values[--size];
+				return true;
+			}
+		}
+		return false;
+	}
+
+	int pop() {
+		return values[--size];
+	}
+
+	int get(int index) {
+		return values[index];
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+}
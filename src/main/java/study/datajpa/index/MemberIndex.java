@@ -0,0 +1,332 @@
+package study.datajpa.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.repository.MemberChangedEvent;
+
+/**
+ * Member 의 username / age 조회를 SQL 없이 처리하는 메모리 인덱스.
+ * 값은 slot 번호로 접근하는 컬럼 배열(int[] age, 중복 제거한 username 등)에 두고,
+ * username -> slot 해시 인덱스와 age 정렬 인덱스를 둔다. age 정렬 인덱스는 적재할 때 한 번 정렬하고, 이후 쓰기는 이진 탐색 위치에 끼워 넣거나 뺀다.
+ * 단건 변경은 MemberIndexListener(엔티티 이벤트)로, bulk 변경은 MemberChangedEvent 로 무효화한 뒤 다음 조회 때 다시 적재한다.
+ */
+@Component
+@ConditionalOnProperty(name = "member-index.enabled", havingValue = "true")
+public class MemberIndex {
+
+	private static final String LOAD_QUERY = "select m.id, m.username, m.age, t.id, m.version from Member m left join m.team t";
+	private static final long NO_TEAM = Long.MIN_VALUE;
+
+	private final EntityManager em;
+	private final TransactionTemplate readOnlyTx;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private final LongAdder loads = new LongAdder();
+
+	// 컬럼 (slot 번호로 접근, live[slot] 이 false 면 빈 slot)
+	private long[] ids = new long[0];
+	private String[] usernames = new String[0];
+	private int[] ages = new int[0];
+	private long[] teamIds = new long[0];
+	private long[] versions = new long[0];
+	private boolean[] live = new boolean[0];
+	private int slots;
+	private final IntList freeSlots = new IntList();
+
+	private final Map<Long, Integer> slotById = new HashMap<>();
+	private final Map<String, String> internedUsernames = new HashMap<>();
+	private final Map<String, IntList> slotsByUsername = new HashMap<>();
+
+	// (age << 32 | slot) 오름차순. 앞 ageKeyCount 개만 유효
+	private long[] ageKeys = new long[0];
+	private int ageKeyCount;
+	private boolean loaded;
+
+	public MemberIndex(EntityManager em, PlatformTransactionManager transactionManager) {
+		this.em = em;
+		this.readOnlyTx = new TransactionTemplate(transactionManager);
+		this.readOnlyTx.setReadOnly(true);
+	}
+
+	public List<IndexedMember> findByUsername(String username) {
+		return read(() -> collect(slotsByUsername.get(username), slot -> true));
+	}
+
+	public List<IndexedMember> findByUsernameAndAgeGreaterThan(String username, int age) {
+		return read(() -> collect(slotsByUsername.get(username), slot -> ages[slot] > age));
+	}
+
+	public List<IndexedMember> findByNames(Collection<String> names) {
+		return read(() -> {
+			List<IndexedMember> result = new ArrayList<>();
+			for (String name : new LinkedHashSet<>(names)) {
+				result.addAll(collect(slotsByUsername.get(name), slot -> true));
+			}
+			return result;
+		});
+	}
+
+	public List<IndexedMember> findByAge(int age) {
+		return read(() -> {
+			List<IndexedMember> result = new ArrayList<>();
+			for (int i = lowerBound(ageKey(age, 0)); i < ageKeyCount && (int) (ageKeys[i] >> 32) == age; i++) {
+				result.add(toMember((int) ageKeys[i]));
+			}
+			return result;
+		});
+	}
+
+	public int size() {
+		return read(slotById::size);
+	}
+
+	public long getLoadCount() {
+		return loads.sum();
+	}
+
+	void upsert(long id, String username, int age, Long teamId, long version) {
+		lock.writeLock().lock();
+		try {
+			if (loaded) {
+				put(id, username, age, teamId, version, true);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	void remove(long id) {
+		lock.writeLock().lock();
+		try {
+			if (!loaded) {
+				return;
+			}
+			Integer slot = slotById.remove(id);
+			if (slot != null) {
+				unindexUsername(slot);
+				removeAgeKey(ageKey(ages[slot], slot));
+				live[slot] = false;
+				usernames[slot] = null;
+				freeSlots.add(slot);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	// deleteAllInBatch 는 엔티티 이벤트가 없으므로 deleted 이벤트로 지우고, bulkAgePlus 처럼 어떤 행이 바뀌었는지 모르는 변경은 다시 적재한다.
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onMemberChanged(MemberChangedEvent event) {
+		if (event.isDeleted()) {
+			remove(event.getMemberId());
+			return;
+		}
+		if (!event.isBulk()) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			loaded = false;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private <T> T read(Supplier<T> query) {
+		lock.readLock().lock();
+		try {
+			if (loaded) {
+				return query.get();
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		lock.writeLock().lock();
+		try {
+			if (!loaded) {
+				load();
+			}
+			// write -> read 로 downgrade
+			lock.readLock().lock();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		try {
+			return query.get();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void load() {
+		List<Object[]> rows = readOnlyTx.execute(status -> em.createQuery(LOAD_QUERY, Object[].class).getResultList());
+		int capacity = Math.max(16, rows.size());
+		ids = new long[capacity];
+		usernames = new String[capacity];
+		ages = new int[capacity];
+		teamIds = new long[capacity];
+		versions = new long[capacity];
+		live = new boolean[capacity];
+		slots = 0;
+		while (!freeSlots.isEmpty()) {
+			freeSlots.pop();
+		}
+		slotById.clear();
+		internedUsernames.clear();
+		slotsByUsername.clear();
+		ageKeyCount = 0;
+		for (Object[] row : rows) {
+			put((Long) row[0], (String) row[1], (Integer) row[2], (Long) row[3], row[4] == null ? 0 : (Long) row[4], false);
+		}
+		buildAgeIndex();
+		loaded = true;
+		loads.increment();
+	}
+
+	// indexAge 가 false 면 age 정렬 인덱스는 호출한 쪽(load)이 한 번에 만든다.
+	private void put(long id, String username, int age, Long teamId, long version, boolean indexAge) {
+		Integer existing = slotById.get(id);
+		int slot;
+		if (existing == null) {
+			slot = allocate();
+			slotById.put(id, slot);
+			ids[slot] = id;
+			live[slot] = true;
+		} else {
+			slot = existing;
+			// 적재 이후 늦게 도착한 이전 버전은 무시
+			if (versions[slot] > version) {
+				return;
+			}
+			unindexUsername(slot);
+			if (indexAge) {
+				removeAgeKey(ageKey(ages[slot], slot));
+			}
+		}
+		String interned = username == null ? null : internedUsernames.computeIfAbsent(username, key -> key);
+		usernames[slot] = interned;
+		ages[slot] = age;
+		teamIds[slot] = teamId == null ? NO_TEAM : teamId;
+		versions[slot] = version;
+		if (interned != null) {
+			slotsByUsername.computeIfAbsent(interned, key -> new IntList()).add(slot);
+		}
+		if (indexAge) {
+			insertAgeKey(ageKey(age, slot));
+		}
+	}
+
+	private int allocate() {
+		if (!freeSlots.isEmpty()) {
+			return freeSlots.pop();
+		}
+		if (slots == ids.length) {
+			int capacity = Math.max(16, slots * 2);
+			ids = Arrays.copyOf(ids, capacity);
+			usernames = Arrays.copyOf(usernames, capacity);
+			ages = Arrays.copyOf(ages, capacity);
+			teamIds = Arrays.copyOf(teamIds, capacity);
+			versions = Arrays.copyOf(versions, capacity);
+			live = Arrays.copyOf(live, capacity);
+		}
+		return slots++;
+	}
+
+	private void unindexUsername(int slot) {
+		String username = usernames[slot];
+		if (username == null) {
+			return;
+		}
+		IntList bucket = slotsByUsername.get(username);
+		if (bucket != null) {
+			bucket.remove(slot);
+			if (bucket.isEmpty()) {
+				slotsByUsername.remove(username);
+			}
+		}
+	}
+
+	// (age << 32 | slot) 을 long 배열로 정렬해서 boxing 없이 age 순 slot 을 만든다.
+	private void buildAgeIndex() {
+		ageKeys = new long[Math.max(16, slotById.size())];
+		ageKeyCount = 0;
+		for (int slot = 0; slot < slots; slot++) {
+			if (live[slot]) {
+				ageKeys[ageKeyCount++] = ageKey(ages[slot], slot);
+			}
+		}
+		Arrays.sort(ageKeys, 0, ageKeyCount);
+	}
+
+	// 쓰기 한 건은 정렬 대신 이진 탐색 위치에 끼워 넣는다. (arraycopy 한 번)
+	private void insertAgeKey(long key) {
+		int index = lowerBound(key);
+		if (ageKeyCount == ageKeys.length) {
+			ageKeys = Arrays.copyOf(ageKeys, Math.max(16, ageKeyCount * 2));
+		}
+		System.arraycopy(ageKeys, index, ageKeys, index + 1, ageKeyCount - index);
+		ageKeys[index] = key;
+		ageKeyCount++;
+	}
+
+	private void removeAgeKey(long key) {
+		int index = lowerBound(key);
+		if (index < ageKeyCount && ageKeys[index] == key) {
+			System.arraycopy(ageKeys, index + 1, ageKeys, index, ageKeyCount - index - 1);
+			ageKeyCount--;
+		}
+	}
+
+	private static long ageKey(int age, int slot) {
+		return ((long) age << 32) | slot;
+	}
+
+	private int lowerBound(long key) {
+		int low = 0;
+		int high = ageKeyCount;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (ageKeys[mid] < key) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private List<IndexedMember> collect(IntList slotList, IntPredicate filter) {
+		if (slotList == null) {
+			return new ArrayList<>();
+		}
+		List<IndexedMember> result = new ArrayList<>(slotList.size());
+		for (int i = 0; i < slotList.size(); i++) {
+			int slot = slotList.get(i);
+			if (filter.test(slot)) {
+				result.add(toMember(slot));
+			}
+		}
+		return result;
+	}
+
+	private IndexedMember toMember(int slot) {
+		return new IndexedMember(ids[slot], usernames[slot], ages[slot], teamIds[slot] == NO_TEAM ? null : teamIds[slot]);
+	}
+}
@@ -0,0 +1,61 @@
+package study.datajpa.index;
+
+import java.util.function.Consumer;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import study.datajpa.entity.Member;
+
+/**
+ * Member 엔티티 이벤트를 MemberIndex 에 반영한다. (hibernate 가 SpringBeanContainer 로 생성)
+ * 값은 flush 시점에 복사해 두고 커밋된 뒤에만 적용해서 롤백된 변경은 인덱스에 들어가지 않는다.
+ */
+public class MemberIndexListener {
+
+	private final ObjectProvider<MemberIndex> memberIndex;
+
+	public MemberIndexListener(ObjectProvider<MemberIndex> memberIndex) {
+		this.memberIndex = memberIndex;
+	}
+
+	@PostPersist
+	@PostUpdate
+	public void saved(Member member) {
+		long id = member.getId();
+		String username = member.getUsername();
+		int age = member.getAge();
+		// 프록시여도 id 만 읽으면 초기화하지 않는다.
+		Long teamId = member.getTeam() == null ? null : member.getTeam().getId();
+		long version = member.getVersion() == null ? 0 : member.getVersion();
+		afterCommit(index -> index.upsert(id, username, age, teamId, version));
+	}
+
+	@PostRemove
+	public void removed(Member member) {
+		long id = member.getId();
+		afterCommit(index -> index.remove(id));
+	}
+
+	private void afterCommit(Consumer<MemberIndex> change) {
+		MemberIndex index = memberIndex.getIfAvailable();
+		if (index == null) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			change.accept(index);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				change.accept(index);
+			}
+		});
+	}
+}
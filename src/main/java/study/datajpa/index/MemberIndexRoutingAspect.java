@@ -0,0 +1,100 @@
+package study.datajpa.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import javax.persistence.EntityManager;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.entity.Member;
+
+/**
+ * member-index.enabled 일 때 MemberRepository 의 username 조회를 MemberIndex 로 보낸다.
+ * 인덱스로 id 를 찾은 뒤 엔티티는 2차 캐시에 있으면 캐시에서, 없으면 id IN 쿼리 한 번으로 읽는다.
+ * 인덱스는 커밋된 값만 가지므로 읽기/쓰기 트랜잭션 안(자기 변경이 보여야 하는 곳)에서는 원래 쿼리를 실행한다.
+ * (findByAge(int, Pageable) 의 @Query 는 age 조건이 없는 쿼리라 인덱스로 바꾸면 결과가 달라지므로 보내지 않는다)
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "member-index.enabled", havingValue = "true")
+public class MemberIndexRoutingAspect {
+
+	private final MemberIndex memberIndex;
+	private final EntityManager em;
+	private final TransactionTemplate readOnlyTx;
+
+	public MemberIndexRoutingAspect(MemberIndex memberIndex, EntityManager em, PlatformTransactionManager transactionManager) {
+		this.memberIndex = memberIndex;
+		this.em = em;
+		this.readOnlyTx = new TransactionTemplate(transactionManager);
+		this.readOnlyTx.setReadOnly(true);
+	}
+
+	@Around("this(study.datajpa.repository.MemberRepository) && execution(* findByUsername(String)) && args(username)")
+	public Object findByUsername(ProceedingJoinPoint joinPoint, String username) throws Throwable {
+		if (inReadWriteTransaction()) {
+			return joinPoint.proceed();
+		}
+		return load(memberIndex.findByUsername(username), member -> Objects.equals(member.getUsername(), username));
+	}
+
+	@Around("this(study.datajpa.repository.MemberRepository) && execution(* findByUsernameAndAgeGreaterThan(String, int)) && args(username, age)")
+	public Object findByUsernameAndAgeGreaterThan(ProceedingJoinPoint joinPoint, String username, int age) throws Throwable {
+		if (inReadWriteTransaction()) {
+			return joinPoint.proceed();
+		}
+		return load(memberIndex.findByUsernameAndAgeGreaterThan(username, age),
+				member -> Objects.equals(member.getUsername(), username) && member.getAge() > age);
+	}
+
+	@Around("this(study.datajpa.repository.MemberRepository) && execution(* findByNames(java.util.Collection)) && args(names)")
+	public Object findByNames(ProceedingJoinPoint joinPoint, Collection<String> names) throws Throwable {
+		if (inReadWriteTransaction()) {
+			return joinPoint.proceed();
+		}
+		return load(memberIndex.findByNames(names), member -> names.contains(member.getUsername()));
+	}
+
+	private static boolean inReadWriteTransaction() {
+		return TransactionSynchronizationManager.isActualTransactionActive()
+				&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+	}
+
+	// 인덱스와 엔티티 사이에 바뀐(지워진) 회원은 조건을 다시 확인해서 뺀다.
+	private List<Member> load(List<IndexedMember> found, Predicate<Member> stillMatches) {
+		if (found.isEmpty()) {
+			return new ArrayList<>();
+		}
+		return readOnlyTx.execute(status -> {
+			Session session = em.unwrap(Session.class);
+			Cache cache = session.getSessionFactory().getCache();
+			List<Member> members = new ArrayList<>(found.size());
+			List<Long> uncached = new ArrayList<>();
+			for (IndexedMember indexed : found) {
+				if (cache.containsEntity(Member.class, indexed.getId())) {
+					members.add(session.get(Member.class, indexed.getId()));
+				} else {
+					uncached.add(indexed.getId());
+				}
+			}
+			if (!uncached.isEmpty()) {
+				members.addAll(session.byMultipleIds(Member.class).enableSessionCheck(true).multiLoad(uncached));
+			}
+			members.removeIf(member -> member == null || !stillMatches.test(member));
+			return members;
+		});
+	}
+}
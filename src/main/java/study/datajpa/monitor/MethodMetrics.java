@@ -0,0 +1,82 @@
+package study.datajpa.monitor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * repository 메서드 하나의 누적 지표. 핫패스에서 락 없이 LongAdder / AtomicLongArray 만 사용한다.
+ * latency 는 마이크로초 기준 2의 거듭제곱 버킷 히스토그램으로 기록한다.
+ */
+public class MethodMetrics {
+
+	private static final int BUCKETS = 40;
+
+	private final String name;
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAdder statements = new LongAdder();
+	private final LongAdder rows = new LongAdder();
+	private final LongAdder resultSize = new LongAdder();
+	private final AtomicLongArray latencyBuckets = new AtomicLongArray(BUCKETS);
+
+	public MethodMetrics(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void record(long nanos, long statementCount, long rowCount, long size, boolean error) {
+		calls.increment();
+		totalNanos.add(nanos);
+		statements.add(statementCount);
+		rows.add(rowCount);
+		resultSize.add(size);
+		if (error) {
+			errors.increment();
+		}
+		long micros = nanos / 1000;
+		int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+		latencyBuckets.incrementAndGet(bucket);
+	}
+
+	public Map<String, Object> snapshot() {
+		long callCount = calls.sum();
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("calls", callCount);
+		result.put("errors", errors.sum());
+		result.put("avgMicros", callCount == 0 ? 0 : totalNanos.sum() / callCount / 1000);
+		result.put("p50Micros", percentileMicros(0.50));
+		result.put("p99Micros", percentileMicros(0.99));
+		result.put("statementsPerCall", callCount == 0 ? 0.0 : (double) statements.sum() / callCount);
+		result.put("rowsPerCall", callCount == 0 ? 0.0 : (double) rows.sum() / callCount);
+		result.put("resultSizePerCall", callCount == 0 ? 0.0 : (double) resultSize.sum() / callCount);
+		return result;
+	}
+
+	// 버킷 상한값을 돌려주므로 실제 값보다 최대 2배까지 클 수 있다.
+	private long percentileMicros(double percentile) {
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = latencyBuckets.get(i);
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long threshold = (long) Math.ceil(total * percentile);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= threshold) {
+				return 1L << i;
+			}
+		}
+		return 1L << (BUCKETS - 1);
+	}
+}
@@ -0,0 +1,49 @@
+package study.datajpa.monitor;
+
+/**
+ * 현재 스레드에서 실행 중인 가장 바깥쪽 repository 메서드 이름. SQL 진단을 호출한 메서드별로 묶을 때 사용한다.
+ */
+public final class RepositoryCallContext {
+
+	private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+	private RepositoryCallContext() {
+	}
+
+	static boolean enter(String methodName) {
+		if (CURRENT.get() != null) {
+			return false;
+		}
+		CURRENT.set(methodName);
+		return true;
+	}
+
+	static void exit() {
+		CURRENT.remove();
+	}
+
+	/**
+	 * 다른 스레드에 넘기는 작업에 현재 repository 메서드 이름을 넘겨서, 그 스레드의 SQL 도 호출한 메서드로 집계되게 한다.
+	 */
+	public static Runnable propagate(Runnable task) {
+		String methodName = CURRENT.get();
+		if (methodName == null) {
+			return task;
+		}
+		return () -> {
+			boolean entered = enter(methodName);
+			try {
+				task.run();
+			} finally {
+				if (entered) {
+					exit();
+				}
+			}
+		};
+	}
+
+	public static String current() {
+		String methodName = CURRENT.get();
+		return methodName == null ? "-" : methodName;
+	}
+}
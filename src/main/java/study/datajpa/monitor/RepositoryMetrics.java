@@ -0,0 +1,36 @@
+package study.datajpa.monitor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class RepositoryMetrics {
+
+	// (repository 프록시 클래스, 메서드) -> 지표. 호출마다 문자열 키를 만들지 않는다.
+	private final ConcurrentMap<Class<?>, ConcurrentMap<Method, MethodMetrics>> metrics = new ConcurrentHashMap<>();
+
+	public MethodMetrics get(Class<?> repositoryClass, String repositoryName, Method method) {
+		return metrics.computeIfAbsent(repositoryClass, key -> new ConcurrentHashMap<>())
+				.computeIfAbsent(method, key -> new MethodMetrics(repositoryName + "." + method.getName()
+						+ "(" + method.getParameterCount() + ")"));
+	}
+
+	public Map<String, Map<String, Object>> snapshot() {
+		Map<String, Map<String, Object>> result = new TreeMap<>();
+		for (ConcurrentMap<Method, MethodMetrics> methods : metrics.values()) {
+			for (MethodMetrics methodMetrics : methods.values()) {
+				result.put(methodMetrics.getName(), methodMetrics.snapshot());
+			}
+		}
+		return result;
+	}
+
+	public void reset() {
+		metrics.clear();
+	}
+}
@@ -0,0 +1,81 @@
+package study.datajpa.monitor;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Spring Data repository 와 @Repository 클래스의 호출마다 latency, statement 수, 읽은 row 수, 결과 건수를 기록한다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+	private final RepositoryMetrics repositoryMetrics;
+	private final SqlCountListener sqlCountListener;
+	private final ConcurrentMap<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+	@Around("(this(org.springframework.data.repository.Repository) || @within(org.springframework.stereotype.Repository))"
+			+ " && execution(public * *(..)) && !execution(* java.lang.Object.*(..))")
+	public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+		Class<?> repositoryClass = joinPoint.getThis().getClass();
+		MethodMetrics metrics = repositoryMetrics.get(repositoryClass,
+				repositoryNames.computeIfAbsent(repositoryClass, RepositoryMetricsAspect::repositoryName),
+				((MethodSignature) joinPoint.getSignature()).getMethod());
+
+		boolean outermost = RepositoryCallContext.enter(metrics.getName());
+		long statements = sqlCountListener.statements();
+		long rows = sqlCountListener.rows();
+		long start = System.nanoTime();
+		Object result = null;
+		boolean error = true;
+		try {
+			result = joinPoint.proceed();
+			error = false;
+			return result;
+		} finally {
+			if (outermost) {
+				RepositoryCallContext.exit();
+			}
+			metrics.record(System.nanoTime() - start, sqlCountListener.statements() - statements,
+					sqlCountListener.rows() - rows, resultSize(result), error);
+		}
+	}
+
+	private static String repositoryName(Class<?> proxyClass) {
+		// Spring Data 프록시는 첫 번째 인터페이스가 repository 인터페이스다.
+		if (Proxy.isProxyClass(proxyClass) && proxyClass.getInterfaces().length > 0) {
+			return proxyClass.getInterfaces()[0].getSimpleName();
+		}
+		return ClassUtils.getUserClass(proxyClass).getSimpleName();
+	}
+
+	private static long resultSize(Object result) {
+		if (result == null) {
+			return 0;
+		}
+		if (result instanceof Collection) {
+			return ((Collection<?>) result).size();
+		}
+		if (result instanceof Slice) {
+			return ((Slice<?>) result).getNumberOfElements();
+		}
+		if (result instanceof Optional) {
+			return ((Optional<?>) result).isPresent() ? 1 : 0;
+		}
+		return 1;
+	}
+}
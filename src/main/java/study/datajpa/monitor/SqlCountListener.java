@@ -0,0 +1,53 @@
+package study.datajpa.monitor;
+
+import java.sql.SQLException;
+
+import org.springframework.stereotype.Component;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+
+/**
+ * p6spy 이벤트로 현재 스레드에서 실행된 statement 수와 읽은 row 수를 센다.
+ * (p6spy-spring-boot-starter 가 JdbcEventListener 빈을 자동으로 등록한다)
+ */
+@Component
+public class SqlCountListener extends SimpleJdbcEventListener {
+
+	private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[2]);
+
+	@Override
+	public void onBeforeAnyExecute(StatementInformation statementInformation) {
+		COUNTS.get()[0]++;
+	}
+
+	@Override
+	public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext,
+			SQLException e) {
+		if (hasNext) {
+			COUNTS.get()[1]++;
+		}
+	}
+
+	/**
+	 * 현재 스레드의 (statement 수, row 수). 다른 스레드에서 대신 실행한 SQL 을 addToCurrentThread 로 옮길 때 사용한다.
+	 */
+	public static long[] currentThreadCounts() {
+		return COUNTS.get().clone();
+	}
+
+	public static void addToCurrentThread(long statements, long rows) {
+		long[] counts = COUNTS.get();
+		counts[0] += statements;
+		counts[1] += rows;
+	}
+
+	public long statements() {
+		return COUNTS.get()[0];
+	}
+
+	public long rows() {
+		return COUNTS.get()[1];
+	}
+}
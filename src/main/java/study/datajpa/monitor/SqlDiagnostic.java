@@ -0,0 +1,29 @@
+package study.datajpa.monitor;
+
+import java.time.Instant;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class SqlDiagnostic {
+
+	public enum Type {
+		SLOW_QUERY, N_PLUS_ONE, UNBOUNDED_RESULT
+	}
+
+	private final Type type;
+	private final String fingerprint;
+	private final String repositoryMethod;
+	// SLOW_QUERY: 실행 시간(ms), N_PLUS_ONE: 트랜잭션 안 반복 횟수, UNBOUNDED_RESULT: 읽은 row 수
+	private final long value;
+	private final Instant occurredAt = Instant.now();
+
+	public SqlDiagnostic(Type type, String fingerprint, String repositoryMethod, long value) {
+		this.type = type;
+		this.fingerprint = fingerprint;
+		this.repositoryMethod = repositoryMethod;
+		this.value = value;
+	}
+}
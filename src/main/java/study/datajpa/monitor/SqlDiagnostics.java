@@ -0,0 +1,80 @@
+package study.datajpa.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * SQL 진단 결과 저장소. 최근 이벤트는 고정 크기 ring buffer 에 덮어쓰고,
+ * (유형, fingerprint, repository 메서드) 별 누적 횟수는 max-aggregates 개까지만 보관해서 heap 이 늘어나지 않는다.
+ */
+@Component
+public class SqlDiagnostics {
+
+	private final AtomicReferenceArray<SqlDiagnostic> buffer;
+	private final AtomicLong sequence = new AtomicLong();
+	private final ConcurrentMap<String, LongAdder> aggregates = new ConcurrentHashMap<>();
+	private final LongAdder droppedAggregates = new LongAdder();
+	private final int maxAggregates;
+
+	public SqlDiagnostics(@Value("${sql-diagnostics.buffer-size:256}") int bufferSize,
+			@Value("${sql-diagnostics.max-aggregates:1000}") int maxAggregates) {
+		this.buffer = new AtomicReferenceArray<>(bufferSize);
+		this.maxAggregates = maxAggregates;
+	}
+
+	public void report(SqlDiagnostic diagnostic) {
+		buffer.set((int) (sequence.getAndIncrement() % buffer.length()), diagnostic);
+
+		String key = diagnostic.getType() + " | " + diagnostic.getRepositoryMethod() + " | " + diagnostic.getFingerprint();
+		LongAdder count = aggregates.get(key);
+		if (count == null) {
+			if (aggregates.size() >= maxAggregates) {
+				droppedAggregates.increment();
+				return;
+			}
+			count = aggregates.computeIfAbsent(key, k -> new LongAdder());
+		}
+		count.increment();
+	}
+
+	// 오래된 것부터 최신 순서
+	public List<SqlDiagnostic> recent() {
+		long end = sequence.get();
+		long start = Math.max(0, end - buffer.length());
+		List<SqlDiagnostic> result = new ArrayList<>();
+		for (long i = start; i < end; i++) {
+			SqlDiagnostic diagnostic = buffer.get((int) (i % buffer.length()));
+			if (diagnostic != null) {
+				result.add(diagnostic);
+			}
+		}
+		return result;
+	}
+
+	public Map<String, Long> aggregates() {
+		Map<String, Long> result = new TreeMap<>();
+		aggregates.forEach((key, count) -> result.put(key, count.sum()));
+		if (droppedAggregates.sum() > 0) {
+			result.put("(dropped)", droppedAggregates.sum());
+		}
+		return result;
+	}
+
+	public void clear() {
+		for (int i = 0; i < buffer.length(); i++) {
+			buffer.set(i, null);
+		}
+		aggregates.clear();
+		droppedAggregates.reset();
+	}
+}
@@ -0,0 +1,124 @@
+package study.datajpa.monitor;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+
+/**
+ * p6spy 이벤트로 slow query, 트랜잭션 안에서 같은 모양의 SQL 반복(N + 1), limit 없이 많은 row 를 읽는 쿼리를 찾는다.
+ */
+@Component
+public class SqlDiagnosticsListener extends SimpleJdbcEventListener {
+
+	private static final ThreadLocal<TransactionScope> SCOPE = new ThreadLocal<>();
+	private static final ThreadLocal<ResultSetCounter> RESULT_SET = new ThreadLocal<>();
+
+	private final SqlDiagnostics diagnostics;
+	private final long slowThresholdNanos;
+	private final int repeatThreshold;
+	private final int unboundedRows;
+
+	public SqlDiagnosticsListener(SqlDiagnostics diagnostics,
+			@Value("${sql-diagnostics.slow-threshold:200ms}") Duration slowThreshold,
+			@Value("${sql-diagnostics.repeat-threshold:10}") int repeatThreshold,
+			@Value("${sql-diagnostics.unbounded-rows:1000}") int unboundedRows) {
+		this.diagnostics = diagnostics;
+		this.slowThresholdNanos = slowThreshold.toNanos();
+		this.repeatThreshold = repeatThreshold;
+		this.unboundedRows = unboundedRows;
+	}
+
+	@Override
+	public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+		String sql = statementInformation.getSql();
+		if (sql == null) {
+			return;
+		}
+		String fingerprint = null;
+		if (timeElapsedNanos >= slowThresholdNanos) {
+			fingerprint = SqlFingerprint.of(sql);
+			diagnostics.report(new SqlDiagnostic(SqlDiagnostic.Type.SLOW_QUERY, fingerprint,
+					RepositoryCallContext.current(), timeElapsedNanos / 1_000_000));
+		}
+
+		TransactionScope scope = currentScope();
+		if (scope != null) {
+			if (fingerprint == null) {
+				fingerprint = SqlFingerprint.of(sql);
+			}
+			int count = scope.counts.merge(fingerprint, 1, Integer::sum);
+			// 트랜잭션당 fingerprint 별로 한 번만 보고한다.
+			if (count == repeatThreshold) {
+				diagnostics.report(new SqlDiagnostic(SqlDiagnostic.Type.N_PLUS_ONE, fingerprint,
+						RepositoryCallContext.current(), count));
+			}
+		}
+	}
+
+	@Override
+	public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext,
+			SQLException e) {
+		if (!hasNext) {
+			return;
+		}
+		ResultSetCounter counter = RESULT_SET.get();
+		if (counter == null || counter.resultSet != resultSetInformation) {
+			counter = new ResultSetCounter(resultSetInformation);
+			RESULT_SET.set(counter);
+		}
+		if (++counter.rows == unboundedRows && resultSetInformation.getSql() != null) {
+			String fingerprint = SqlFingerprint.of(resultSetInformation.getSql());
+			if (!SqlFingerprint.isLimited(fingerprint)) {
+				diagnostics.report(new SqlDiagnostic(SqlDiagnostic.Type.UNBOUNDED_RESULT, fingerprint,
+						RepositoryCallContext.current(), counter.rows));
+			}
+		}
+	}
+
+	@Override
+	public void onAfterResultSetClose(ResultSetInformation resultSetInformation, SQLException e) {
+		RESULT_SET.remove();
+	}
+
+	private TransactionScope currentScope() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return null;
+		}
+		TransactionScope scope = SCOPE.get();
+		if (scope == null) {
+			TransactionScope created = new TransactionScope();
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					SCOPE.remove();
+				}
+			});
+			SCOPE.set(created);
+			scope = created;
+		}
+		return scope;
+	}
+
+	private static final class TransactionScope {
+		private final Map<String, Integer> counts = new HashMap<>();
+	}
+
+	private static final class ResultSetCounter {
+		private final ResultSetInformation resultSet;
+		private int rows;
+
+		private ResultSetCounter(ResultSetInformation resultSet) {
+			this.resultSet = resultSet;
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package study.datajpa.monitor;
+
+import java.util.regex.Pattern;
+
+/**
+ * 값만 다른 SQL 을 같은 모양으로 묶기 위한 정규화. 문자열/숫자 리터럴은 ?, in (...) 목록은 in (?) 로 바꾼다.
+ */
+public final class SqlFingerprint {
+
+	private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+	private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+	private static final Pattern IN_LIST = Pattern.compile("\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+	private static final Pattern LIMITED = Pattern.compile("\\b(limit|fetch\\s+first|top|rownum)\\b");
+
+	private SqlFingerprint() {
+	}
+
+	public static String of(String sql) {
+		String normalized = WHITESPACE.matcher(sql.trim().toLowerCase()).replaceAll(" ");
+		normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+		normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+		return IN_LIST.matcher(normalized).replaceAll("in (?)");
+	}
+
+	public static boolean isLimited(String fingerprint) {
+		return LIMITED.matcher(fingerprint).find();
+	}
+}
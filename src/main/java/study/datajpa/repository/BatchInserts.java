@@ -0,0 +1,53 @@
+package study.datajpa.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+
+/**
+ * batchSize 단위로 persist 후 flush 해서 JDBC batch insert 로 저장한다.
+ * 저장한 엔티티는 flush 할 때마다 detach 해서 영속성 컨텍스트가 batchSize 이상 커지지 않게 한다.
+ * em.clear() 는 호출 전부터 영속 상태였던 엔티티(호출한 쪽이 수정 중인 엔티티 등)까지 준영속으로 만들므로 쓰지 않는다.
+ * flush 는 영속성 컨텍스트 전체에 적용되므로 호출한 쪽의 변경도 함께 반영된다.
+ */
+final class BatchInserts {
+
+	private BatchInserts() {
+	}
+
+	static <T> int persistAll(EntityManager em, Iterable<T> entities, int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+		}
+		Session session = em.unwrap(Session.class);
+		Integer previousBatchSize = session.getJdbcBatchSize();
+		session.setJdbcBatchSize(batchSize);
+		try {
+			int count = 0;
+			List<T> chunk = new ArrayList<>(batchSize);
+			for (T entity : entities) {
+				em.persist(entity);
+				chunk.add(entity);
+				count++;
+				if (chunk.size() == batchSize) {
+					flushAndDetach(em, chunk);
+				}
+			}
+			flushAndDetach(em, chunk);
+			return count;
+		} finally {
+			session.setJdbcBatchSize(previousBatchSize);
+		}
+	}
+
+	private static <T> void flushAndDetach(EntityManager em, List<T> chunk) {
+		em.flush();
+		for (T entity : chunk) {
+			em.detach(entity);
+		}
+		chunk.clear();
+	}
+}
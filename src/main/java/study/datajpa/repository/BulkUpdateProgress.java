@@ -0,0 +1,36 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 청크 단위 bulk update 진행 상황. lastProcessedId 까지는 커밋이 끝났으므로 실패하면 이 값을 넘겨 이어서 실행한다.
+ */
+@Getter
+@ToString
+public class BulkUpdateProgress {
+
+	private final Long lastProcessedId;
+	private final long updatedRows;
+	private final int chunks;
+	private final boolean done;
+
+	public BulkUpdateProgress(Long lastProcessedId, long updatedRows, int chunks, boolean done) {
+		this.lastProcessedId = lastProcessedId;
+		this.updatedRows = updatedRows;
+		this.chunks = chunks;
+		this.done = done;
+	}
+
+	public static BulkUpdateProgress start() {
+		return new BulkUpdateProgress(null, 0, 0, false);
+	}
+
+	BulkUpdateProgress next(Long lastProcessedId, int updated) {
+		return new BulkUpdateProgress(lastProcessedId, updatedRows + updated, chunks + 1, false);
+	}
+
+	BulkUpdateProgress finish() {
+		return new BulkUpdateProgress(lastProcessedId, updatedRows, chunks, true);
+	}
+}
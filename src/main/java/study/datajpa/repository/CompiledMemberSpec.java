@@ -0,0 +1,110 @@
+package study.datajpa.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+/**
+ * 같은 조건 목록에서 criteria(findAll(Specification))와 JPQL(findAllCompiled)을 둘 다 만드는 Specification.
+ * 조건은 "속성 = 값"만 있고, team 속성은 inner join 한 번으로 읽는다.
+ * 값이 null 이어도 is null 이 아니라 = null 이므로 (기존 criteria 와 같이) 아무 회원도 맞지 않는다.
+ * JPQL 은 값 대신 파라미터를 쓰므로 값만 다른 spec 은 같은 문자열이 되어 hibernate query plan cache 를 그대로 탄다.
+ */
+public final class CompiledMemberSpec implements Specification<Member> {
+
+	private final List<Condition> conditions;
+
+	private CompiledMemberSpec(List<Condition> conditions) {
+		this.conditions = conditions;
+	}
+
+	static CompiledMemberSpec empty() {
+		return new CompiledMemberSpec(Collections.emptyList());
+	}
+
+	static CompiledMemberSpec memberEquals(String attribute, Object value) {
+		return new CompiledMemberSpec(Collections.singletonList(new Condition(false, attribute, value)));
+	}
+
+	static CompiledMemberSpec teamEquals(String attribute, Object value) {
+		return new CompiledMemberSpec(Collections.singletonList(new Condition(true, attribute, value)));
+	}
+
+	public CompiledMemberSpec and(CompiledMemberSpec other) {
+		List<Condition> combined = new ArrayList<>(conditions);
+		combined.addAll(other.conditions);
+		return new CompiledMemberSpec(combined);
+	}
+
+	@Override
+	public Predicate toPredicate(Root<Member> root, CriteriaQuery<?> query, CriteriaBuilder builder) {
+		if (conditions.isEmpty()) {
+			return null;
+		}
+		Join<Member, Team> team = null;
+		List<Predicate> predicates = new ArrayList<>(conditions.size());
+		for (Condition condition : conditions) {
+			Path<Object> path;
+			if (condition.team) {
+				if (team == null) {
+					team = root.join("team", JoinType.INNER);
+				}
+				path = team.get(condition.attribute);
+			} else {
+				path = root.get(condition.attribute);
+			}
+			predicates.add(builder.equal(path, condition.value));
+		}
+		return builder.and(predicates.toArray(new Predicate[0]));
+	}
+
+	List<Object> values() {
+		List<Object> values = new ArrayList<>(conditions.size());
+		for (Condition condition : conditions) {
+			values.add(condition.value);
+		}
+		return values;
+	}
+
+	String toJpql() {
+		StringBuilder jpql = new StringBuilder("select m from Member m");
+		for (Condition condition : conditions) {
+			if (condition.team) {
+				jpql.append(" join m.team t");
+				break;
+			}
+		}
+		for (int i = 0; i < conditions.size(); i++) {
+			Condition condition = conditions.get(i);
+			jpql.append(i == 0 ? " where " : " and ")
+					.append(condition.team ? "t." : "m.").append(condition.attribute)
+					.append(" = :p").append(i);
+		}
+		return jpql.toString();
+	}
+
+	private static final class Condition {
+		private final boolean team;
+		private final String attribute;
+		private final Object value;
+
+		private Condition(boolean team, String attribute, Object value) {
+			this.team = team;
+			this.attribute = attribute;
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package study.datajpa.repository;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.jpa.QueryHints;
+
+/**
+ * getResultList() 대신 JDBC fetch size 단위로 cursor 를 읽어 Stream 으로 돌려준다.
+ * 각 엔티티는 소비된 직후 영속성 컨텍스트에서 detach 되므로 건수와 상관없이 heap 사용량이 일정하다.
+ * 트랜잭션 안에서 사용하고, 반드시 try-with-resources 로 close 해야 한다.
+ */
+final class EntityStreams {
+
+	private EntityStreams() {
+	}
+
+	static <T> Stream<T> detaching(EntityManager em, TypedQuery<T> query, int fetchSize) {
+		ScrollableResults results = query
+				.setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+				.setHint(QueryHints.HINT_READONLY, true)
+				.unwrap(org.hibernate.query.Query.class)
+				.scroll(ScrollMode.FORWARD_ONLY);
+
+		Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+				Spliterator.ORDERED | Spliterator.NONNULL) {
+			@Override
+			@SuppressWarnings("unchecked")
+			public boolean tryAdvance(Consumer<? super T> action) {
+				if (!results.next()) {
+					return false;
+				}
+				T entity = (T) results.get(0);
+				action.accept(entity);
+				em.detach(entity);
+				return true;
+			}
+		};
+		return StreamSupport.stream(spliterator, false).onClose(results::close);
+	}
+}
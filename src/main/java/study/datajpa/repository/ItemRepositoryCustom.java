@@ -0,0 +1,12 @@
+package study.datajpa.repository;
+
+import java.util.Collection;
+
+import study.datajpa.entity.Item;
+
+public interface ItemRepositoryCustom {
+
+	// 영속성 컨텍스트를 거치지 않고 JDBC batch MERGE 로 없는 Item 만 insert, 새로 insert 된 건수 반환
+	int upsertAll(Collection<Item> items, int batchSize);
+
+}
@@ -0,0 +1,44 @@
+package study.datajpa.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import lombok.RequiredArgsConstructor;
+import study.datajpa.entity.Item;
+
+@RequiredArgsConstructor
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+	// 이미 있는 id는 건드리지 않아서 createdDate 가 유지된다.
+	private static final String UPSERT_SQL = "MERGE INTO item t"
+			+ " USING (SELECT CAST(? AS VARCHAR(255)) AS id, CAST(? AS TIMESTAMP) AS created_date) s"
+			+ " ON t.id = s.id"
+			+ " WHEN NOT MATCHED THEN INSERT (id, created_date) VALUES (s.id, s.created_date)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	@Override
+	@Transactional
+	public int upsertAll(Collection<Item> items, int batchSize) {
+		// 감사(auditing) 시간은 batch 전체에 한 번만 구한다.
+		Timestamp createdDate = Timestamp.valueOf(LocalDateTime.now());
+		int[][] results = jdbcTemplate.batchUpdate(UPSERT_SQL, items, batchSize, (ps, item) -> {
+			ps.setString(1, item.getId());
+			ps.setTimestamp(2, createdDate);
+		});
+		int inserted = 0;
+		for (int[] batch : results) {
+			for (int count : batch) {
+				if (count > 0) {
+					inserted += count;
+				}
+			}
+		}
+		return inserted;
+	}
+
+}
@@ -0,0 +1,87 @@
+package study.datajpa.repository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * bulkAgePlus 를 PK 범위 청크로 나눠 실행한다. 청크마다 별도 트랜잭션으로 커밋해서 락을 오래 잡지 않는다.
+ */
+@Component
+public class MemberBulkUpdateExecutor {
+
+	@PersistenceContext
+	private EntityManager em;
+
+	private final TransactionTemplate chunkTransaction;
+	private final ApplicationEventPublisher publisher;
+
+	public MemberBulkUpdateExecutor(PlatformTransactionManager transactionManager, ApplicationEventPublisher publisher) {
+		this.chunkTransaction = new TransactionTemplate(transactionManager);
+		this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.publisher = publisher;
+	}
+
+	public BulkUpdateProgress bulkAgePlus(int age, int chunkSize) {
+		return bulkAgePlus(age, chunkSize, BulkUpdateProgress.start(), progress -> {
+		});
+	}
+
+	// resumeFrom 이후 id 부터 이어서 실행하고, 청크가 커밋될 때마다 listener 에 진행 상황을 알린다.
+	public BulkUpdateProgress bulkAgePlus(int age, int chunkSize, BulkUpdateProgress resumeFrom,
+			Consumer<BulkUpdateProgress> listener) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+		}
+		BulkUpdateProgress progress = resumeFrom;
+		while (true) {
+			Long lastId = progress.getLastProcessedId() == null ? Long.MIN_VALUE : progress.getLastProcessedId();
+			Chunk chunk = chunkTransaction.execute(status -> updateChunk(age, lastId, chunkSize));
+			if (chunk == null) {
+				return progress.finish();
+			}
+			progress = progress.next(chunk.upperId, chunk.updated);
+			if (chunk.updated > 0) {
+				// bulk update 는 영속성 컨텍스트를 거치지 않으므로 캐시들에 알린다. (member 2차 캐시 region 은 hibernate 가 비운다)
+				publisher.publishEvent(MemberChangedEvent.bulk());
+			}
+			listener.accept(progress);
+		}
+	}
+
+	private Chunk updateChunk(int age, Long lastId, int chunkSize) {
+		List<Long> ids = em.createQuery("select m.id from Member m where m.id > :lastId order by m.id", Long.class)
+				.setParameter("lastId", lastId)
+				.setMaxResults(chunkSize)
+				.getResultList();
+		if (ids.isEmpty()) {
+			return null;
+		}
+		Long upperId = ids.get(ids.size() - 1);
+		int updated = em.createQuery("update Member m set m.age = m.age + 1, m.version = m.version + 1"
+				+ " where m.age >= :age and m.id > :lastId and m.id <= :upperId")
+				.setParameter("age", age)
+				.setParameter("lastId", lastId)
+				.setParameter("upperId", upperId)
+				.executeUpdate();
+		return new Chunk(upperId, updated);
+	}
+
+	private static final class Chunk {
+		private final Long upperId;
+		private final int updated;
+
+		private Chunk(Long upperId, int updated) {
+			this.upperId = upperId;
+			this.updated = updated;
+		}
+	}
+}
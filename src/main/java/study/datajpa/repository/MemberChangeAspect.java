@@ -0,0 +1,64 @@
+package study.datajpa.repository;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import study.datajpa.entity.Member;
+
+/**
+ * MemberRepository, MemberJpaRepository 의 쓰기 메서드 호출 후 MemberChangedEvent 를 발행한다.
+ * bulkAgePlus 처럼 영속성 컨텍스트를 무시하는 연산도 여기서 잡아서 캐시들이 무효화할 수 있게 한다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MemberChangeAspect {
+
+	private final ApplicationEventPublisher publisher;
+
+	@AfterReturning(pointcut = "(this(study.datajpa.repository.MemberRepository) || this(study.datajpa.repository.MemberJpaRepository))"
+			+ " && execution(* save*(..))", returning = "result")
+	public void afterSave(Object result) {
+		publish(result, false);
+	}
+
+	@AfterReturning("(this(study.datajpa.repository.MemberRepository) || this(study.datajpa.repository.MemberJpaRepository))"
+			+ " && execution(* delete*(..))")
+	public void afterDelete(JoinPoint joinPoint) {
+		Object[] args = joinPoint.getArgs();
+		// deleteAllInBatch(entities), deleteAllByIdInBatch(ids) 는 엔티티 이벤트 없이 지우므로 id 별 deleted 이벤트로 알린다.
+		if (args.length == 1) {
+			publish(args[0], true);
+		} else {
+			publisher.publishEvent(MemberChangedEvent.bulk());
+		}
+	}
+
+	@AfterReturning("(this(study.datajpa.repository.MemberRepository) || this(study.datajpa.repository.MemberJpaRepository))"
+			+ " && execution(* bulk*(..))")
+	public void afterBulkUpdate() {
+		publisher.publishEvent(MemberChangedEvent.bulk());
+	}
+
+	private void publish(Object target, boolean deleted) {
+		if (target instanceof Member && ((Member) target).getId() != null) {
+			publish(((Member) target).getId(), deleted);
+		} else if (target instanceof Long) {
+			publish((Long) target, deleted);
+		} else if (target instanceof Iterable) {
+			for (Object element : (Iterable<?>) target) {
+				publish(element, deleted);
+			}
+		} else if (target != null) {
+			publisher.publishEvent(MemberChangedEvent.bulk());
+		}
+	}
+
+	private void publish(Long memberId, boolean deleted) {
+		publisher.publishEvent(deleted ? MemberChangedEvent.deleted(memberId) : MemberChangedEvent.of(memberId));
+	}
+}
@@ -0,0 +1,38 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Member 쓰기(save, delete, bulk update) 이후 발행되는 이벤트.
+ * memberId 가 null 이면 영속성 컨텍스트를 거치지 않는 bulk 변경이라 어떤 회원이 바뀌었는지 알 수 없다.
+ * deleted 는 delete 메서드로 지워진 회원이다. (deleteAllInBatch 처럼 엔티티 이벤트 없이 지워지는 경우도 포함)
+ */
+@Getter
+@ToString
+public class MemberChangedEvent {
+
+	private final Long memberId;
+	private final boolean deleted;
+
+	private MemberChangedEvent(Long memberId, boolean deleted) {
+		this.memberId = memberId;
+		this.deleted = deleted;
+	}
+
+	public static MemberChangedEvent of(Long memberId) {
+		return new MemberChangedEvent(memberId, false);
+	}
+
+	public static MemberChangedEvent deleted(Long memberId) {
+		return new MemberChangedEvent(memberId, true);
+	}
+
+	public static MemberChangedEvent bulk() {
+		return new MemberChangedEvent(null, false);
+	}
+
+	public boolean isBulk() {
+		return memberId == null;
+	}
+}
@@ -0,0 +1,56 @@
+package study.datajpa.repository;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * keyset 페이징용 커서. (username, member_id) 정렬 키를 URL-safe 토큰으로 변환한다.
+ * username 이 null 인 회원도 있으므로 id 다음 1바이트로 null 여부를 표시한다.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class MemberCursor {
+
+	private static final byte NULL_USERNAME = 0;
+	private static final byte USERNAME = 1;
+
+	private final String username;
+	private final Long id;
+
+	public MemberCursor(String username, Long id) {
+		this.username = username;
+		this.id = id;
+	}
+
+	public String encode() {
+		byte[] name = username == null ? new byte[0] : username.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + 1 + name.length);
+		buffer.putLong(id).put(username == null ? NULL_USERNAME : USERNAME).put(name);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+	}
+
+	public static MemberCursor decode(String token) {
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+			long id = buffer.getLong();
+			byte flag = buffer.get();
+			if (flag == NULL_USERNAME && !buffer.hasRemaining()) {
+				return new MemberCursor(null, id);
+			}
+			if (flag != USERNAME) {
+				throw new IllegalArgumentException("unknown username flag: " + flag);
+			}
+			byte[] name = new byte[buffer.remaining()];
+			buffer.get(name);
+			return new MemberCursor(new String(name, StandardCharsets.UTF_8), id);
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("잘못된 커서 토큰입니다: " + token, e);
+		}
+	}
+}
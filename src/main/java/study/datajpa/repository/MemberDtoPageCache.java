@@ -0,0 +1,249 @@
+package study.datajpa.repository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import study.datajpa.dto.MemberDto;
+
+/**
+ * /members 의 Page<MemberDto> 를 (page, size, sort) 별로 직렬화해서 heap 밖에 보관한다.
+ * 시작할 때 max-size 크기의 direct ByteBuffer 하나를 block-size 단위로 나눠 두고 항목마다 block 을 빌려 쓰므로
+ * 캐시된 페이지는 GC 대상 객체가 거의 없고, 항목을 버려도 direct 메모리 할당/해제가 일어나지 않는다.
+ * 용량이 모자라면 가장 오래 안 쓴 항목부터 버린다. 회원이 바뀌면 페이지 경계가 모두 바뀔 수 있으므로 전부 비운다.
+ * (repository 호출은 MemberChangedEvent, dirty checking 변경은 MemberDtoPageCacheListener 가 커밋 뒤에 비운다)
+ * 팀 이름 변경은 이벤트가 없으므로 ttl 로 보정한다.
+ * max-size 만큼 direct 메모리를 바로 잡으므로 member-dto-page-cache.enabled 일 때만 등록한다.
+ */
+@Component
+@ConditionalOnProperty(name = "member-dto-page-cache.enabled", havingValue = "true")
+public class MemberDtoPageCache {
+
+	private static final long NULL_ID = Long.MIN_VALUE;
+
+	private final ByteBuffer arena;
+	// arena 의 position 을 옮겨 쓰는 view (lock 안에서만 사용)
+	private final ByteBuffer view;
+	private final int blockSize;
+	private final int[] freeBlocks;
+	private int freeCount;
+	private final long ttlNanos;
+	// access-order LinkedHashMap = LRU
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	// 무효화 전에 읽기 시작한 페이지는 저장하지 않는다.
+	private long generation;
+
+	private long hits;
+	private long misses;
+	private long puts;
+	private long evictions;
+
+	public MemberDtoPageCache(@Value("${member-dto-page-cache.max-size:8MB}") DataSize maxSize,
+			@Value("${member-dto-page-cache.block-size:4KB}") DataSize blockSize,
+			@Value("${member-dto-page-cache.ttl:30s}") Duration ttl) {
+		if (blockSize.toBytes() <= 0 || blockSize.toBytes() > maxSize.toBytes()) {
+			throw new IllegalArgumentException("member-dto-page-cache.block-size must be between 1B and max-size: " + blockSize);
+		}
+		// direct ByteBuffer 는 int 크기까지만 잡을 수 있다.
+		if (maxSize.toBytes() > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("member-dto-page-cache.max-size must be less than 2GB: " + maxSize);
+		}
+		this.blockSize = (int) blockSize.toBytes();
+		int blocks = (int) (maxSize.toBytes() / this.blockSize);
+		this.arena = ByteBuffer.allocateDirect(blocks * this.blockSize);
+		this.view = arena.duplicate();
+		this.freeBlocks = new int[blocks];
+		this.ttlNanos = ttl.toNanos();
+		releaseAll();
+	}
+
+	public Page<MemberDto> get(Pageable pageable, Supplier<Page<MemberDto>> loader) {
+		if (pageable.isUnpaged()) {
+			return loader.get();
+		}
+		String key = pageable.getPageNumber() + ":" + pageable.getPageSize() + ":" + pageable.getSort();
+		byte[] cached = null;
+		long loadGeneration;
+		synchronized (this) {
+			Entry entry = entries.get(key);
+			if (entry != null && System.nanoTime() - entry.expiresAt < 0) {
+				hits++;
+				cached = read(entry);
+			} else if (entry != null) {
+				release(entries.remove(key));
+			}
+			if (cached == null) {
+				misses++;
+			}
+			loadGeneration = generation;
+		}
+		if (cached != null) {
+			return decode(cached, pageable);
+		}
+
+		Page<MemberDto> page = loader.get();
+		byte[] encoded = encode(page);
+		synchronized (this) {
+			if (loadGeneration == generation) {
+				put(key, encoded);
+			}
+		}
+		return page;
+	}
+
+	// 커밋 전에 비우면 다른 스레드가 커밋 전 데이터를 다시 채울 수 있다.
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onMemberChanged(MemberChangedEvent event) {
+		invalidateAll();
+	}
+
+	public synchronized void invalidateAll() {
+		generation++;
+		entries.clear();
+		releaseAll();
+	}
+
+	public synchronized Map<String, Long> stats() {
+		Map<String, Long> stats = new LinkedHashMap<>();
+		stats.put("hit", hits);
+		stats.put("miss", misses);
+		stats.put("put", puts);
+		stats.put("eviction", evictions);
+		stats.put("entries", (long) entries.size());
+		stats.put("usedBytes", (long) (freeBlocks.length - freeCount) * blockSize);
+		stats.put("capacityBytes", (long) arena.capacity());
+		return stats;
+	}
+
+	private void put(String key, byte[] bytes) {
+		int needed = Math.max(1, (bytes.length + blockSize - 1) / blockSize);
+		if (needed > freeBlocks.length) {
+			return;
+		}
+		Entry previous = entries.remove(key);
+		if (previous != null) {
+			release(previous);
+		}
+		Iterator<Entry> eldest = entries.values().iterator();
+		while (freeCount < needed && eldest.hasNext()) {
+			release(eldest.next());
+			eldest.remove();
+			evictions++;
+		}
+		int[] blocks = new int[needed];
+		for (int i = 0; i < needed; i++) {
+			blocks[i] = freeBlocks[--freeCount];
+			int offset = i * blockSize;
+			view.clear().position(blocks[i] * blockSize);
+			view.put(bytes, offset, Math.min(blockSize, bytes.length - offset));
+		}
+		entries.put(key, new Entry(blocks, bytes.length, System.nanoTime() + ttlNanos));
+		puts++;
+	}
+
+	private byte[] read(Entry entry) {
+		byte[] bytes = new byte[entry.length];
+		for (int i = 0; i < entry.blocks.length; i++) {
+			int offset = i * blockSize;
+			view.clear().position(entry.blocks[i] * blockSize);
+			view.get(bytes, offset, Math.min(blockSize, entry.length - offset));
+		}
+		return bytes;
+	}
+
+	private void release(Entry entry) {
+		for (int block : entry.blocks) {
+			freeBlocks[freeCount++] = block;
+		}
+	}
+
+	private void releaseAll() {
+		for (int i = 0; i < freeBlocks.length; i++) {
+			freeBlocks[i] = freeBlocks.length - 1 - i;
+		}
+		freeCount = freeBlocks.length;
+	}
+
+	// total, 건수, (id, username, teamName)...
+	static byte[] encode(Page<MemberDto> page) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + page.getNumberOfElements() * 32);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeLong(page.getTotalElements());
+			out.writeInt(page.getNumberOfElements());
+			for (MemberDto dto : page.getContent()) {
+				out.writeLong(dto.getId() == null ? NULL_ID : dto.getId());
+				writeString(out, dto.getUsername());
+				writeString(out, dto.getTeamName());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	static Page<MemberDto> decode(byte[] bytes, Pageable pageable) {
+		ByteBuffer in = ByteBuffer.wrap(bytes);
+		long total = in.getLong();
+		int size = in.getInt();
+		List<MemberDto> content = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			long id = in.getLong();
+			String username = readString(in);
+			String teamName = readString(in);
+			content.add(new MemberDto(id == NULL_ID ? null : id, username, teamName));
+		}
+		return new PageImpl<>(content, pageable, total);
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(utf8.length);
+		out.write(utf8);
+	}
+
+	private static String readString(ByteBuffer in) {
+		int length = in.getInt();
+		if (length < 0) {
+			return null;
+		}
+		String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+		in.position(in.position() + length);
+		return value;
+	}
+
+	private static class Entry {
+		private final int[] blocks;
+		private final int length;
+		private final long expiresAt;
+
+		Entry(int[] blocks, int length, long expiresAt) {
+			this.blocks = blocks;
+			this.length = length;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package study.datajpa.repository;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import study.datajpa.entity.Member;
+
+/**
+ * dirty checking 으로 바뀐 Member 는 repository 를 거치지 않아서 MemberChangedEvent 가 없다.
+ * 엔티티 이벤트가 나면 트랜잭션마다 한 번, 커밋된 뒤에 MemberDtoPageCache 를 비운다. (hibernate 가 SpringBeanContainer 로 생성)
+ */
+public class MemberDtoPageCacheListener {
+
+	private final ObjectProvider<MemberDtoPageCache> memberDtoPageCache;
+
+	public MemberDtoPageCacheListener(ObjectProvider<MemberDtoPageCache> memberDtoPageCache) {
+		this.memberDtoPageCache = memberDtoPageCache;
+	}
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void changed(Member member) {
+		MemberDtoPageCache cache = memberDtoPageCache.getIfAvailable();
+		if (cache == null) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			cache.invalidateAll();
+			return;
+		}
+		// REQUIRES_NEW 로 바깥 트랜잭션이 suspend 되면 그 synchronization 은 목록에서 빠지므로 트랜잭션마다 하나씩 등록된다.
+		for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+			if (synchronization instanceof InvalidateAfterCommit) {
+				return;
+			}
+		}
+		TransactionSynchronizationManager.registerSynchronization(new InvalidateAfterCommit(cache));
+	}
+
+	private static final class InvalidateAfterCommit implements TransactionSynchronization {
+
+		private final MemberDtoPageCache cache;
+
+		private InvalidateAfterCommit(MemberDtoPageCache cache) {
+			this.cache = cache;
+		}
+
+		@Override
+		public void afterCommit() {
+			cache.invalidateAll();
+		}
+	}
+}
@@ -1,11 +1,13 @@
 package study.datajpa.repository;
 
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Member;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public class MemberJpaRepository {
@@ -17,6 +19,12 @@ public class MemberJpaRepository {
 		return member;
 	}
 
+	// batchSize 단위로 JDBC batch insert 후 flush 하고, 저장한 엔티티만 detach 한다. (BatchInserts)
+	@Transactional
+	public int saveAllBatched(Iterable<Member> members, int batchSize) {
+		return BatchInserts.persistAll(em, members, batchSize);
+	}
+
 	public void delete(Member member) {
 		em.remove(member);
 	}
@@ -25,6 +33,11 @@ public class MemberJpaRepository {
 		return em.createQuery("select m from Member m", Member.class).getResultList();
 	}
 
+	// 전체 조회를 fetchSize 단위 cursor 로 읽는다. (트랜잭션 안에서 try-with-resources 로 사용)
+	public Stream<Member> streamAll(int fetchSize) {
+		return EntityStreams.detaching(em, em.createQuery("select m from Member m", Member.class), fetchSize);
+	}
+
 	public Optional<Member> findById(Long id) {
 		Member member = em.find(Member.class, id);
 		return Optional.ofNullable(member);
@@ -60,7 +73,7 @@ public class MemberJpaRepository {
 	}
 
 	public int bulkAgePlus(int age) {
-		int resultCount = em.createQuery("update Member m set m.age = m.age + 1" + "where m.age >= :age")
+		int resultCount = em.createQuery("update Member m set m.age = m.age + 1, m.version = m.version + 1" + " where m.age >= :age")
 				.setParameter("age", age).executeUpdate();
 		return resultCount;
 	}
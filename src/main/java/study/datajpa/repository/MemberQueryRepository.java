@@ -1,6 +1,7 @@
 package study.datajpa.repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
 
@@ -18,5 +19,9 @@ public class MemberQueryRepository {
 	List<Member> findAllMembers() {
 		return em.createQuery("select m from Member m").getResultList();
 	}
+
+	Stream<Member> streamAllMembers(int fetchSize) {
+		return EntityStreams.detaching(em, em.createQuery("select m from Member m", Member.class), fetchSize);
+	}
 	
 }
@@ -18,6 +18,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.sun.source.tree.MemberReferenceTree;
 
@@ -28,6 +29,7 @@ public interface MemberRepository
 		extends JpaRepository<Member, Long>, MemberRepositoryCustom, JpaSpecificationExecutor<Member> {
 
 	// @Query(name = "Member.findByUsername")
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	List<Member> findByUsername(@Param("username") String username);
 
 	List<Member> findByUsernameAndAgeGreaterThan(String username, int age);
@@ -39,12 +41,21 @@ public interface MemberRepository
 	@Query("select m.username from Member m")
 	List<String> findUsernameList();
 
+	@Query("select m.username from Member m where m.id = :id")
+	Optional<String> findUsernameById(@Param("id") Long id);
+
 	@Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) " + "from Member m join m.team t")
 	List<MemberDto> findMemberDto();
 
+	// 엔티티를 영속성 컨텍스트에 올리지 않고 DTO 로 바로 페이징 (팀 없는 회원도 포함)
+	@Query(value = "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t",
+			countQuery = "select count(m) from Member m")
+	Page<MemberDto> findMemberDtoPage(Pageable pageable);
+
 	@Query("select m from Member m where m.username = :name")
 	Member findMembers(@Param("name") String username);
 
+	@QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
 	@Query("select m from Member m where m.username in :names")
 	List<Member> findByNames(@Param("names") Collection<String> names);
 
@@ -67,7 +78,7 @@ public interface MemberRepository
 	Page<Member> findByAge(int age, Pageable pageable); // count 쿼리 사용
 
 	@Modifying(clearAutomatically = true)
-	@Query("update Member m set m.age = m.age + 1 where m.age >= :age")
+	@Query("update Member m set m.age = m.age + 1, m.version = m.version + 1 where m.age >= :age")
 	int bulkAgePlus(@Param("age") int age);
 
 	@Query("select m from Member m left join fetch m.team")
@@ -91,9 +102,14 @@ public interface MemberRepository
 //	@Query("select m from Member m")
 //	List<Member> findMemberEntityGraph();
 
+	// 선언한 쿼리 메서드에는 기본 트랜잭션이 없으므로 readOnly 트랜잭션을 명시해야 replica 로 라우팅된다.
+	@Transactional(readOnly = true)
 	@QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
 	Member findReadOnlyByUsername(String username);
 
+	// 페이지 화면은 팀 이름을 항상 쓰므로 조인으로 함께 읽는다. (목록 findByUsername 은 default_batch_fetch_size 로 in 쿼리)
+	@Transactional(readOnly = true)
+	@EntityGraph(attributePaths = { "team" })
 	@QueryHints(value = { @QueryHint(name = "org.hibernate.readOnly", value = "true") }, forCounting = true)
 	Page<Member> findByUsername(String name, Pageable pageable);
 
@@ -105,6 +121,12 @@ public interface MemberRepository
 
 	<T> List<T> findProjectionsByUsername(String username, Class<T> type);
 
+	// UsernameOnly 의 open projection(SpEL)을 select 절로 옮긴 버전. 엔티티, 팀 지연 로딩, SpEL 평가 없음
+	// SpEL 의 문자열 + 와 같이 null 은 "null" 로 쓴다. (팀이 없으면 SpEL 은 예외지만 여기서는 "null")
+	@Query("select new study.datajpa.repository.UsernameOnlyDto(concat(coalesce(m.username, 'null'), ' ', str(m.age), ' ', coalesce(t.name, 'null'))) "
+			+ "from Member m left join m.team t where m.username = :username")
+	List<UsernameOnlyDto> findUsernameOnlyByUsername(@Param("username") String username);
+
 	@Query(value = "select * from member where username = ?", nativeQuery = true)
 	Member findByNativeQuery(String username);
 
@@ -1,11 +1,42 @@
 package study.datajpa.repository;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import study.datajpa.entity.Member;
 
 public interface MemberRepositoryCustom {
 
 	List<Member> findMemberCustom();
+
+	// findMemberCustom 의 streaming 버전 (트랜잭션 안에서 try-with-resources 로 사용)
+	Stream<Member> streamMemberCustom(int fetchSize);
+
+	// keyset(seek) 페이징: (username desc, id desc) 기준으로 cursor 다음 size건, count 쿼리 없음
+	Slice<Member> findMemberKeyset(MemberCursor cursor, int size);
+
+	// count 쿼리 결과를 PageCountCache 에 캐시하는 Page 조회. age 가 같은 회원만 조회한다.
+	// (MemberRepository.findByAge(int, Pageable) 의 캐시 버전이 아니다. 그 @Query 는 age 조건 없이 전체를 페이징한다)
+	Page<Member> findByAgeWithCachedCount(int age, Pageable pageable);
+
+	Page<MemberProjection> findByNativeProjectionWithCachedCount(Pageable pageable);
+
+	// content / count 쿼리를 동시에 실행하는 Page 조회 (ParallelPageExecutor)
+	// findByAgeParallel 은 findByAgeWithCachedCount 와 같은 age 조건 쿼리다. (findByAge(int, Pageable) 의 @Query 와 다르다)
+	Page<Member> findByAgeParallel(int age, Pageable pageable);
+
+	Page<Member> findByUsernameParallel(String username, Pageable pageable);
+
+	Page<MemberProjection> findByNativeProjectionParallel(Pageable pageable);
+
+	// findAll(Specification) 과 같은 결과. criteria 대신 spec 의 조건에서 만든 JPQL 에 값만 바인딩한다.
+	List<Member> findAllCompiled(CompiledMemberSpec spec);
+
+	// batchSize 단위 JDBC batch insert, 저장한 건수 반환. 저장한 엔티티는 준영속이 되고 그 외 영속 엔티티는 그대로 둔다
+	int saveAllBatched(Iterable<Member> members, int batchSize);
 	
 }
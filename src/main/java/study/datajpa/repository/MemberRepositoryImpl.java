@@ -1,8 +1,22 @@
 package study.datajpa.repository;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
 
 import lombok.RequiredArgsConstructor;
 import study.datajpa.entity.Member;
@@ -10,11 +24,161 @@ import study.datajpa.entity.Member;
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom{
 
+	// MemberRepository.findByAge(int, Pageable) 의 @Query 와 달리 age 조건이 있다. (그 쿼리는 age 를 무시하고 전체를 페이징한다)
+	private static final String FIND_BY_AGE_QUERY = "select m from Member m left join m.team t where m.age = :age";
+	private static final String FIND_BY_AGE_COUNT_QUERY = "select count(m) from Member m where m.age = :age";
+	private static final String NATIVE_PROJECTION_QUERY = "SELECT m.member_id as id, m.username, t.name as teamName "
+			+ "FROM member m left join team t on m.team_id = t.team_id";
+	private static final String NATIVE_PROJECTION_COUNT_QUERY = "SELECT count(*) from member";
+	private static final String FIND_BY_USERNAME_QUERY = "select m from Member m where m.username = :username";
+	private static final String FIND_BY_USERNAME_COUNT_QUERY = "select count(m) from Member m where m.username = :username";
+
 	private final EntityManager em;
+	private final PageCountCache pageCountCache;
+	private final ParallelPageExecutor parallelPageExecutor;
 	
 	@Override
 	public List<Member> findMemberCustom() {
 		return em.createQuery("select m from Member m").getResultList();
 	}
 
+	@Override
+	public Stream<Member> streamMemberCustom(int fetchSize) {
+		return EntityStreams.detaching(em, em.createQuery("select m from Member m", Member.class), fetchSize);
+	}
+
+	@Override
+	public Slice<Member> findMemberKeyset(MemberCursor cursor, int size) {
+		TypedQuery<Member> query;
+		// username 이 null 인 회원은 맨 뒤에 둔다. (null 은 < 비교가 안 되므로 따로 조건을 건다)
+		if (cursor == null) {
+			query = em.createQuery("select m from Member m order by m.username desc nulls last, m.id desc", Member.class);
+		} else if (cursor.getUsername() == null) {
+			query = em.createQuery("select m from Member m"
+					+ " where m.username is null and m.id < :id"
+					+ " order by m.username desc nulls last, m.id desc", Member.class)
+					.setParameter("id", cursor.getId());
+		} else {
+			query = em.createQuery("select m from Member m"
+					+ " where m.username < :username or (m.username = :username and m.id < :id) or m.username is null"
+					+ " order by m.username desc nulls last, m.id desc", Member.class)
+					.setParameter("username", cursor.getUsername())
+					.setParameter("id", cursor.getId());
+		}
+		// 다음 페이지 존재 여부는 한 건 더 읽어서 판단한다.
+		List<Member> content = query.setMaxResults(size + 1).getResultList();
+		boolean hasNext = content.size() > size;
+		if (hasNext) {
+			content = content.subList(0, size);
+		}
+		Sort sort = Sort.by(Sort.Order.desc("username").nullsLast(), Sort.Order.desc("id"));
+		return new SliceImpl<>(content, PageRequest.of(0, size, sort), hasNext);
+	}
+
+	@Override
+	public Page<Member> findByAgeWithCachedCount(int age, Pageable pageable) {
+		TypedQuery<Member> query = em.createQuery(QueryUtils.applySorting(FIND_BY_AGE_QUERY, pageable.getSort(), "m"), Member.class)
+				.setParameter("age", age);
+		List<Member> content = paged(query, pageable).getResultList();
+		return PageableExecutionUtils.getPage(content, pageable,
+				() -> pageCountCache.count(FIND_BY_AGE_COUNT_QUERY, List.of(age),
+						() -> em.createQuery(FIND_BY_AGE_COUNT_QUERY, Long.class).setParameter("age", age).getSingleResult()));
+	}
+
+	@Override
+	public Page<MemberProjection> findByNativeProjectionWithCachedCount(Pageable pageable) {
+		return PageableExecutionUtils.getPage(nativeProjectionContent(pageable), pageable,
+				() -> pageCountCache.count(NATIVE_PROJECTION_COUNT_QUERY, List.of(),
+						() -> ((Number) em.createNativeQuery(NATIVE_PROJECTION_COUNT_QUERY).getSingleResult()).longValue()));
+	}
+
+	@Override
+	public Page<Member> findByAgeParallel(int age, Pageable pageable) {
+		return parallelPageExecutor.getPage(pageable,
+				() -> paged(em.createQuery(QueryUtils.applySorting(FIND_BY_AGE_QUERY, pageable.getSort(), "m"), Member.class)
+						.setParameter("age", age), pageable).getResultList(),
+				() -> em.createQuery(FIND_BY_AGE_COUNT_QUERY, Long.class).setParameter("age", age).getSingleResult());
+	}
+
+	@Override
+	public Page<Member> findByUsernameParallel(String username, Pageable pageable) {
+		return parallelPageExecutor.getPage(pageable,
+				() -> paged(em.createQuery(QueryUtils.applySorting(FIND_BY_USERNAME_QUERY, pageable.getSort(), "m"), Member.class)
+						.setParameter("username", username)
+						.setHint("org.hibernate.readOnly", true), pageable).getResultList(),
+				() -> em.createQuery(FIND_BY_USERNAME_COUNT_QUERY, Long.class).setParameter("username", username).getSingleResult());
+	}
+
+	@Override
+	public Page<MemberProjection> findByNativeProjectionParallel(Pageable pageable) {
+		return parallelPageExecutor.getPage(pageable, () -> nativeProjectionContent(pageable),
+				() -> ((Number) em.createNativeQuery(NATIVE_PROJECTION_COUNT_QUERY).getSingleResult()).longValue());
+	}
+
+	private List<MemberProjection> nativeProjectionContent(Pageable pageable) {
+		Query query = em.createNativeQuery(QueryUtils.applySorting(NATIVE_PROJECTION_QUERY, pageable.getSort(), "m"));
+		List<?> rows = paged(query, pageable).getResultList();
+		List<MemberProjection> content = new ArrayList<>(rows.size());
+		for (Object row : rows) {
+			Object[] columns = (Object[]) row;
+			content.add(new MemberProjectionRow(columns[0] == null ? null : ((Number) columns[0]).longValue(),
+					(String) columns[1], (String) columns[2]));
+		}
+		return content;
+	}
+
+	@Override
+	public List<Member> findAllCompiled(CompiledMemberSpec spec) {
+		// 값만 다른 spec 은 같은 JPQL 이므로 hibernate query plan cache 와 H2 의 prepared statement 캐시를 그대로 탄다.
+		String jpql = spec.toJpql();
+		TypedQuery<Member> query = em.createQuery(jpql, Member.class);
+		List<Object> values = spec.values();
+		for (int i = 0; i < values.size(); i++) {
+			query.setParameter("p" + i, values.get(i));
+		}
+		return query.getResultList();
+	}
+
+	@Override
+	@Transactional
+	public int saveAllBatched(Iterable<Member> members, int batchSize) {
+		return BatchInserts.persistAll(em, members, batchSize);
+	}
+
+	// 프록시 + 리플렉션 대신 컬럼을 필드로 바로 들고 있는 MemberProjection 구현
+	private static final class MemberProjectionRow implements MemberProjection {
+		private final Long id;
+		private final String username;
+		private final String teamName;
+
+		private MemberProjectionRow(Long id, String username, String teamName) {
+			this.id = id;
+			this.username = username;
+			this.teamName = teamName;
+		}
+
+		@Override
+		public Long getId() {
+			return id;
+		}
+
+		@Override
+		public String getUsername() {
+			return username;
+		}
+
+		@Override
+		public String getTeamName() {
+			return teamName;
+		}
+	}
+
+	private static <Q extends Query> Q paged(Q query, Pageable pageable) {
+		if (pageable.isPaged()) {
+			query.setFirstResult((int) pageable.getOffset());
+			query.setMaxResults(pageable.getPageSize());
+		}
+		return query;
+	}
+
 }
@@ -1,27 +1,17 @@
 package study.datajpa.repository;
 
-import javax.persistence.criteria.Join;
-import javax.persistence.criteria.JoinType;
-
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
-import study.datajpa.entity.Member;
-import study.datajpa.entity.Team;
-
 public class MemberSpec {
 
-	public static Specification<Member> teamName(final String teamName) {
-		return (Specification<Member>) (root, query, builder) -> {
-			if (StringUtils.isEmpty(teamName)) {
-				return null;
-			}
-			Join<Member, Team> t = root.join("team", JoinType.INNER); // 회원과조인
-			return builder.equal(t.get("name"), teamName);
-		};
+	public static CompiledMemberSpec teamName(final String teamName) {
+		if (StringUtils.isEmpty(teamName)) {
+			return CompiledMemberSpec.empty();
+		}
+		return CompiledMemberSpec.teamEquals("name", teamName); // 회원과조인
 	}
 
-	public static Specification<Member> username(final String username) {
-		return (Specification<Member>) (root, query, builder) -> builder.equal(root.get("username"), username);
+	public static CompiledMemberSpec username(final String username) {
+		return CompiledMemberSpec.memberEquals("username", username);
 	}
-}
\ No newline at end of file
+}
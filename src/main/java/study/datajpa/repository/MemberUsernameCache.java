@@ -0,0 +1,101 @@
+package study.datajpa.repository;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * id -> username read-through 캐시.
+ * 같은 id 에 대한 동시 miss 는 하나의 future 를 공유해서 쿼리가 한 번만 나간다.
+ * 변경은 커밋된 뒤에 비우고, replica 로 갈 수 있는 readOnly 트랜잭션의 조회는 변경 후 max-lag 동안 캐시에 남기지 않는다.
+ */
+@Component
+public class MemberUsernameCache {
+
+	private final MemberRepository memberRepository;
+	private final ConcurrentMap<Long, Entry> cache = new ConcurrentHashMap<>();
+	private final long ttlNanos;
+	private final int maxSize;
+	private final boolean replicaRouting;
+	private final long maxLagNanos;
+	private volatile long invalidatedAt;
+
+	public MemberUsernameCache(MemberRepository memberRepository,
+			@Value("${member-username-cache.ttl:30s}") Duration ttl,
+			@Value("${member-username-cache.max-size:10000}") int maxSize,
+			@Value("${datasource-routing.enabled:false}") boolean replicaRouting,
+			@Value("${datasource-routing.max-lag:5s}") Duration maxLag) {
+		this.memberRepository = memberRepository;
+		this.ttlNanos = ttl.toNanos();
+		this.maxSize = maxSize;
+		this.replicaRouting = replicaRouting;
+		this.maxLagNanos = maxLag.toNanos();
+		this.invalidatedAt = System.nanoTime() - maxLagNanos;
+	}
+
+	public Optional<String> get(Long id) {
+		long now = System.nanoTime();
+		Entry entry = cache.get(id);
+		if (entry == null || entry.isExpired(now)) {
+			if (cache.size() >= maxSize) {
+				cache.values().removeIf(e -> e.isExpired(now));
+				if (cache.size() >= maxSize) {
+					cache.clear();
+				}
+			}
+			Entry created = new Entry(now + ttlNanos);
+			entry = cache.compute(id, (key, old) -> old == null || old.isExpired(now) ? created : old);
+			if (entry == created) {
+				load(id, created);
+			}
+		}
+		return entry.value.join();
+	}
+
+	private void load(Long id, Entry entry) {
+		boolean replicaRead = replicaRouting && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+		long started = System.nanoTime();
+		try {
+			entry.value.complete(memberRepository.findUsernameById(id));
+			// replica 가 변경을 아직 따라오지 못했을 수 있으므로 기다리던 요청에만 주고 버린다.
+			if (replicaRead && started - invalidatedAt < maxLagNanos) {
+				cache.remove(id, entry);
+			}
+		} catch (RuntimeException e) {
+			cache.remove(id, entry);
+			entry.value.completeExceptionally(e);
+		}
+	}
+
+	// 커밋 전에 비우면 다른 스레드가 커밋 전 값을 다시 채울 수 있다.
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onMemberChanged(MemberChangedEvent event) {
+		invalidatedAt = System.nanoTime();
+		if (event.isBulk()) {
+			cache.clear();
+		} else {
+			cache.remove(event.getMemberId());
+		}
+	}
+
+	private static final class Entry {
+		private final CompletableFuture<Optional<String>> value = new CompletableFuture<>();
+		private final long expiresAt;
+
+		private Entry(long expiresAt) {
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isExpired(long now) {
+			return now - expiresAt >= 0;
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package study.datajpa.repository;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * @Version 충돌(OptimisticLockingFailureException) 시 새 트랜잭션에서 다시 실행한다.
+ * findLockByUsername(PESSIMISTIC_WRITE) 대신 트래픽이 많은 수정 작업에 사용한다.
+ * 재시도마다 엔티티를 다시 읽어야 하므로 조회부터 수정까지 operation 안에서 처리해야 한다.
+ */
+@Component
+public class OptimisticLockRetryExecutor {
+
+	private final TransactionTemplate transactionTemplate;
+	private final int maxAttempts;
+	private final long initialBackoffNanos;
+	private final long maxBackoffNanos;
+	private final double multiplier;
+
+	public OptimisticLockRetryExecutor(PlatformTransactionManager transactionManager,
+			@Value("${optimistic-retry.max-attempts:5}") int maxAttempts,
+			@Value("${optimistic-retry.initial-backoff:10ms}") Duration initialBackoff,
+			@Value("${optimistic-retry.max-backoff:200ms}") Duration maxBackoff,
+			@Value("${optimistic-retry.multiplier:2.0}") double multiplier) {
+		if (maxAttempts < 1) {
+			throw new IllegalArgumentException("maxAttempts must be positive: " + maxAttempts);
+		}
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.maxAttempts = maxAttempts;
+		this.initialBackoffNanos = initialBackoff.toNanos();
+		this.maxBackoffNanos = maxBackoff.toNanos();
+		this.multiplier = multiplier;
+	}
+
+	public <T> T execute(Supplier<T> operation) {
+		long backoffNanos = initialBackoffNanos;
+		for (int attempt = 1;; attempt++) {
+			try {
+				return transactionTemplate.execute(status -> operation.get());
+			} catch (OptimisticLockingFailureException e) {
+				if (attempt >= maxAttempts) {
+					throw e;
+				}
+				sleep(backoffNanos);
+				backoffNanos = Math.min(maxBackoffNanos, (long) (backoffNanos * multiplier));
+			}
+		}
+	}
+
+	// 동시에 충돌한 스레드들이 같은 시점에 다시 부딪히지 않도록 jitter 를 준다.
+	private static void sleep(long backoffNanos) {
+		long jittered = backoffNanos / 2 + ThreadLocalRandom.current().nextLong(backoffNanos / 2 + 1);
+		try {
+			Thread.sleep(jittered / 1_000_000, (int) (jittered % 1_000_000));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("optimistic lock retry interrupted", e);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package study.datajpa.repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Page 조회의 count 쿼리 결과를 (쿼리, 파라미터) 단위로 캐시한다.
+ * long-ttl-threshold 를 넘는 count 는 (정확한 count(*) 결과지만) long-ttl 동안 보관하고, 단건 변경으로는 무효화하지 않는다.
+ * 큰 테이블의 전체 건수는 한두 건 달라져도 페이지 수가 거의 같아서 오래된 값을 허용한다.
+ * 읽기/쓰기 트랜잭션 안에서는 캐시를 쓰지 않는다. 자기 변경(커밋 전이라 캐시는 아직 그대로)을 반영해야 하고,
+ * 커밋 전 건수를 다른 스레드와 공유하는 캐시에 넣으면 안 되기 때문이다.
+ */
+@Component
+public class PageCountCache {
+
+	private final ConcurrentMap<List<Object>, CachedCount> cache = new ConcurrentHashMap<>();
+	private final long ttlNanos;
+	private final long longTtlThreshold;
+	private final long longTtlNanos;
+	private final int maxEntries;
+
+	public PageCountCache(@Value("${page-count-cache.ttl:10s}") Duration ttl,
+			@Value("${page-count-cache.long-ttl-threshold:0}") long longTtlThreshold,
+			@Value("${page-count-cache.long-ttl:5m}") Duration longTtl,
+			@Value("${page-count-cache.max-entries:1000}") int maxEntries) {
+		this.ttlNanos = ttl.toNanos();
+		this.longTtlThreshold = longTtlThreshold;
+		this.longTtlNanos = longTtl.toNanos();
+		this.maxEntries = maxEntries;
+	}
+
+	public long count(String query, List<?> parameters, LongSupplier counter) {
+		if (TransactionSynchronizationManager.isActualTransactionActive()
+				&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return counter.getAsLong();
+		}
+		List<Object> key = new ArrayList<>(parameters.size() + 1);
+		key.add(query);
+		key.addAll(parameters);
+
+		long now = System.nanoTime();
+		CachedCount cached = cache.get(key);
+		if (cached != null && now - cached.expiresAt < 0) {
+			return cached.count;
+		}
+
+		long count = counter.getAsLong();
+		boolean longLived = longTtlThreshold > 0 && count >= longTtlThreshold;
+		if (cache.size() >= maxEntries) {
+			cache.clear();
+		}
+		cache.put(key, new CachedCount(count, longLived, now + (longLived ? longTtlNanos : ttlNanos)));
+		return count;
+	}
+
+	// 커밋 전에 비우면 다른 스레드가 커밋 전 건수로 다시 채울 수 있다.
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onMemberChanged(MemberChangedEvent event) {
+		if (event.isBulk()) {
+			invalidateAll();
+		} else {
+			// 큰 count 는 단건 변경 정도로는 다시 세지 않는다.
+			cache.values().removeIf(cached -> !cached.longLived);
+		}
+	}
+
+	public void invalidateAll() {
+		cache.clear();
+	}
+
+	private static final class CachedCount {
+		private final long count;
+		private final boolean longLived;
+		private final long expiresAt;
+
+		private CachedCount(long count, boolean longLived, long expiresAt) {
+			this.count = count;
+			this.longLived = longLived;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package study.datajpa.repository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.monitor.RepositoryCallContext;
+import study.datajpa.monitor.SqlCountListener;
+
+/**
+ * Page 의 content 쿼리는 호출 스레드에서, count 쿼리는 별도 스레드(별도 커넥션, read-only 트랜잭션)에서 동시에 실행한다.
+ * 첫 페이지는 content 가 page size 보다 작으면 count 가 필요 없으므로 content 를 먼저 보고 필요할 때만 count 한다.
+ * count 는 다른 트랜잭션에서 읽으므로 content 와 동시에 들어온 쓰기만큼 어긋날 수 있다.
+ * 읽기/쓰기 트랜잭션 안에서는 아직 커밋(flush)하지 않은 자기 변경이 count 에 빠지므로 호출 스레드에서 순차 실행한다.
+ * count 스레드는 커넥션을 하나 더 쓰므로 executor 는 커넥션 풀보다 작게 잡고(JdbcBulkhead 는 그만큼 비워 둔다),
+ * 대기열이 차면 호출 스레드에서 순차 실행한다.
+ * count 스레드에는 호출한 repository 메서드 이름을 넘기고, 기다려서 받은 count 의 statement/row 수는 호출 스레드 몫으로 더한다.
+ * (결과를 버린 count 는 어느 메서드에도 집계되지 않는다)
+ */
+@Component
+public class ParallelPageExecutor {
+
+	private final ThreadPoolExecutor executor;
+	private final TransactionTemplate readOnlyTx;
+	private final boolean deferFirstPageCount;
+
+	private final LongAdder pages = new LongAdder();
+	private final LongAdder parallelCounts = new LongAdder();
+	private final LongAdder sequentialCounts = new LongAdder();
+	// total 을 content 로 알 수 있어서 실행하지 않은 count
+	private final LongAdder skippedCounts = new LongAdder();
+	// 이미 실행을 시작해서 결과만 버린 count
+	private final LongAdder discardedCounts = new LongAdder();
+	private final LongAdder savedNanos = new LongAdder();
+
+	public ParallelPageExecutor(PlatformTransactionManager transactionManager,
+			@Value("${parallel-page.concurrency:4}") int concurrency,
+			@Value("${parallel-page.queue-capacity:64}") int queueCapacity,
+			@Value("${parallel-page.defer-first-page-count:true}") boolean deferFirstPageCount) {
+		this.readOnlyTx = new TransactionTemplate(transactionManager);
+		this.readOnlyTx.setReadOnly(true);
+		this.deferFirstPageCount = deferFirstPageCount;
+		AtomicInteger seq = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), r -> {
+					Thread thread = new Thread(r, "page-count-" + seq.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	public <T> Page<T> getPage(Pageable pageable, Supplier<List<T>> content, LongSupplier count) {
+		pages.increment();
+		CountTask countTask = new CountTask(count);
+		boolean parallel = pageable.isPaged() && !(deferFirstPageCount && pageable.getOffset() == 0)
+				&& !inReadWriteTransaction();
+		if (parallel) {
+			try {
+				executor.execute(RepositoryCallContext.propagate(countTask));
+			} catch (RejectedExecutionException e) {
+				parallel = false;
+			}
+		}
+
+		long start = System.nanoTime();
+		List<T> rows = content.get();
+		long contentNanos = System.nanoTime() - start;
+		Page<T> page = PageableExecutionUtils.getPage(rows, pageable, countTask::await);
+		// getPage 는 count 가 필요할 때만 supplier 를 부른다.
+		if (countTask.cancel()) {
+			skippedCounts.increment();
+		} else if (!countTask.awaited) {
+			discardedCounts.increment();
+		} else if (parallel) {
+			parallelCounts.increment();
+			long sequentialNanos = contentNanos + countTask.nanos;
+			savedNanos.add(Math.max(0, sequentialNanos - (System.nanoTime() - start)));
+		} else {
+			sequentialCounts.increment();
+		}
+		return page;
+	}
+
+	private static boolean inReadWriteTransaction() {
+		return TransactionSynchronizationManager.isActualTransactionActive()
+				&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+	}
+
+	public Map<String, Object> snapshot() {
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("pages", pages.sum());
+		result.put("parallelCounts", parallelCounts.sum());
+		result.put("sequentialCounts", sequentialCounts.sum());
+		result.put("skippedCounts", skippedCounts.sum());
+		result.put("discardedCounts", discardedCounts.sum());
+		result.put("savedMillis", savedNanos.sum() / 1_000_000.0);
+		return result;
+	}
+
+	public long getSkippedCounts() {
+		return skippedCounts.sum();
+	}
+
+	public long getParallelCounts() {
+		return parallelCounts.sum();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	private final class CountTask implements Runnable {
+
+		private static final int NEW = 0;
+		private static final int RUNNING = 1;
+		private static final int CANCELLED = 2;
+
+		private final LongSupplier count;
+		private final Thread caller = Thread.currentThread();
+		private final AtomicInteger state = new AtomicInteger(NEW);
+		private final CompletableFuture<Long> result = new CompletableFuture<>();
+		private volatile long nanos;
+		// count 스레드에서 실행된 (statement 수, row 수)
+		private volatile long[] sqlCounts;
+		private boolean awaited;
+
+		CountTask(LongSupplier count) {
+			this.count = count;
+		}
+
+		@Override
+		public void run() {
+			if (!state.compareAndSet(NEW, RUNNING)) {
+				return;
+			}
+			long start = System.nanoTime();
+			long[] before = SqlCountListener.currentThreadCounts();
+			Long total = null;
+			Throwable failure = null;
+			try {
+				total = readOnlyTx.execute(status -> count.getAsLong());
+			} catch (RuntimeException | Error e) {
+				failure = e;
+			}
+			nanos = System.nanoTime() - start;
+			// 결과를 알리기 전에 기록해야 await 한 호출 스레드가 본다.
+			if (Thread.currentThread() != caller) {
+				long[] after = SqlCountListener.currentThreadCounts();
+				sqlCounts = new long[] { after[0] - before[0], after[1] - before[1] };
+			}
+			if (failure == null) {
+				result.complete(total);
+			} else {
+				result.completeExceptionally(failure);
+			}
+		}
+
+		// 아직 시작하지 않았으면 실행하지 않게 한다.
+		boolean cancel() {
+			return state.compareAndSet(NEW, CANCELLED);
+		}
+
+		long await() {
+			awaited = true;
+			// 대기열에 넣지 않았거나(순차) 아직 시작 전이면 호출 스레드에서 실행
+			run();
+			try {
+				return result.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw e;
+			} finally {
+				long[] counted = sqlCounts;
+				if (counted != null) {
+					SqlCountListener.addToCurrentThread(counted[0], counted[1]);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,13 @@
+package study.datajpa.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import study.datajpa.entity.Team;
+
+public interface TeamRepositoryCustom {
+
+	// 컬렉션 fetch join + 페이징은 메모리에서 페이징하므로, id 를 먼저 페이징하고 members 는 해당 id 만 fetch join 한다.
+	Page<Team> findTeamsWithMembers(Pageable pageable);
+
+}
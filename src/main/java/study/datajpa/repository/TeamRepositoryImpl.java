@@ -0,0 +1,63 @@
+package study.datajpa.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import lombok.RequiredArgsConstructor;
+import study.datajpa.entity.Team;
+
+@RequiredArgsConstructor
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+	private final EntityManager em;
+
+	@Override
+	public Page<Team> findTeamsWithMembers(Pageable pageable) {
+		// 1. 팀 id 만 DB 에서 페이징
+		TypedQuery<Long> idQuery = em.createQuery(QueryUtils.applySorting("select t.id from Team t", pageable.getSort(), "t"),
+				Long.class);
+		if (pageable.isPaged()) {
+			idQuery.setFirstResult((int) pageable.getOffset());
+			idQuery.setMaxResults(pageable.getPageSize());
+		}
+		List<Long> ids = idQuery.getResultList();
+
+		// 2. 해당 팀들만 members 와 함께 조회
+		List<Team> content = Collections.emptyList();
+		if (!ids.isEmpty()) {
+			List<Team> teams = em.createQuery("select distinct t from Team t left join fetch t.members where t.id in :ids", Team.class)
+					.setParameter("ids", ids)
+					.getResultList();
+			content = inIdOrder(ids, teams);
+		}
+
+		return PageableExecutionUtils.getPage(content, pageable,
+				() -> em.createQuery("select count(t) from Team t", Long.class).getSingleResult());
+	}
+
+	// 1 과 2 사이에 다른 트랜잭션이 지운 팀은 2 의 결과에 없으므로 그 자리는 건너뛴다. (페이지가 그만큼 짧아진다)
+	static List<Team> inIdOrder(List<Long> ids, List<Team> teams) {
+		Map<Long, Team> byId = teams.stream().collect(Collectors.toMap(Team::getId, Function.identity()));
+		List<Team> ordered = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			Team team = byId.get(id);
+			if (team != null) {
+				ordered.add(team);
+			}
+		}
+		return ordered;
+	}
+
+}
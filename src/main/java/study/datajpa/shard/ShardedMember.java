@@ -0,0 +1,28 @@
+package study.datajpa.shard;
+
+import lombok.Getter;
+import lombok.ToString;
+import study.datajpa.dto.MemberDto;
+
+@Getter
+@ToString
+public class ShardedMember {
+
+	private final long id;
+	private final String username;
+	private final int age;
+	private final Long teamId;
+	private final String teamName;
+
+	public ShardedMember(long id, String username, int age, Long teamId, String teamName) {
+		this.id = id;
+		this.username = username;
+		this.age = age;
+		this.teamId = teamId;
+		this.teamName = teamName;
+	}
+
+	public MemberDto toDto() {
+		return new MemberDto(id, username, teamName);
+	}
+}
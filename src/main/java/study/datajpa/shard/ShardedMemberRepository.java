@@ -0,0 +1,267 @@
+package study.datajpa.shard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import study.datajpa.dto.MemberDto;
+
+/**
+ * team_id 로 member 를 N 개 datasource 에 나눠 저장한다. (team_id % N, 팀 없는 회원은 0 번)
+ * team 은 모든 shard 에 복제하는 참조 테이블이라 조인은 shard 안에서 끝난다.
+ * member id 는 shard 별 sequence * N + shard 번호라서 id 만으로 shard 를 찾을 수 있다.
+ * 여러 shard 에 걸친 조회는 병렬로 실행하고 요청한 Sort 로 k-way merge 한다.
+ * JPA MemberRepository 와는 별개의 API 다. MemberRepository 는 계속 JPA member 테이블만 쓴다.
+ */
+public class ShardedMemberRepository implements AutoCloseable {
+
+	private static final String[] SCHEMA = {
+			"create table if not exists team (team_id bigint primary key, name varchar(255))",
+			"create table if not exists member (member_id bigint primary key, username varchar(255), age int not null,"
+					+ " team_id bigint, constraint fk_member_team foreign key (team_id) references team (team_id))",
+			"create index if not exists idx_member_username on member (username)",
+			"create sequence if not exists member_seq",
+			"create sequence if not exists team_seq" };
+	private static final String SELECT = "select m.member_id, m.username, m.age, m.team_id, t.name as team_name"
+			+ " from member m left join team t on m.team_id = t.team_id";
+
+	private static final RowMapper<ShardedMember> ROW_MAPPER = (rs, rowNum) -> new ShardedMember(
+			rs.getLong("member_id"), rs.getString("username"), rs.getInt("age"),
+			rs.getObject("team_id", Long.class), rs.getString("team_name"));
+
+	private final List<JdbcTemplate> shards;
+	private final ExecutorService executor;
+
+	public ShardedMemberRepository(List<DataSource> dataSources) {
+		this.shards = dataSources.stream().map(JdbcTemplate::new).collect(Collectors.toList());
+		AtomicInteger seq = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(dataSources.size(), r -> {
+			Thread thread = new Thread(r, "member-shard-" + seq.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+		for (JdbcTemplate shard : shards) {
+			for (String ddl : SCHEMA) {
+				shard.execute(ddl);
+			}
+		}
+	}
+
+	public int getShardCount() {
+		return shards.size();
+	}
+
+	public int shardForTeam(Long teamId) {
+		return teamId == null ? 0 : (int) Math.floorMod(teamId, (long) shards.size());
+	}
+
+	public int shardForId(long memberId) {
+		return (int) Math.floorMod(memberId, (long) shards.size());
+	}
+
+	/**
+	 * 팀은 모든 shard 에 같은 id 로 저장한다. shard 사이에 트랜잭션이 없으므로 중간에 실패하면
+	 * 이미 저장한 shard 에서 지워서(보상) 일부 shard 에만 팀이 남지 않게 한다.
+	 */
+	public long saveTeam(String name) {
+		long teamId = shards.get(0).queryForObject("select next value for team_seq", Long.class);
+		List<JdbcTemplate> written = new ArrayList<>(shards.size());
+		try {
+			for (JdbcTemplate shard : shards) {
+				shard.update("insert into team (team_id, name) values (?, ?)", teamId, name);
+				written.add(shard);
+			}
+		} catch (RuntimeException e) {
+			for (JdbcTemplate shard : written) {
+				try {
+					shard.update("delete from team where team_id = ?", teamId);
+				} catch (RuntimeException compensationFailure) {
+					e.addSuppressed(compensationFailure);
+				}
+			}
+			throw e;
+		}
+		return teamId;
+	}
+
+	public long save(String username, int age, Long teamId) {
+		int shardIndex = shardForTeam(teamId);
+		JdbcTemplate shard = shards.get(shardIndex);
+		long local = shard.queryForObject("select next value for member_seq", Long.class);
+		long id = local * shards.size() + shardIndex;
+		shard.update("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", id, username, age, teamId);
+		return id;
+	}
+
+	public Optional<ShardedMember> findById(long id) {
+		return shards.get(shardForId(id)).query(SELECT + " where m.member_id = ?", ROW_MAPPER, id).stream().findFirst();
+	}
+
+	// 팀을 알면 한 shard 만 조회
+	public List<ShardedMember> findByUsername(String username, Long teamId) {
+		JdbcTemplate shard = shards.get(shardForTeam(teamId));
+		if (teamId == null) {
+			return shard.query(SELECT + " where m.username = ? and m.team_id is null order by m.member_id", ROW_MAPPER, username);
+		}
+		return shard.query(SELECT + " where m.username = ? and m.team_id = ? order by m.member_id", ROW_MAPPER, username, teamId);
+	}
+
+	public List<ShardedMember> findByUsername(String username) {
+		List<List<ShardedMember>> results = scatter(shard -> shard.query(SELECT + " where m.username = ? order by m.member_id",
+				ROW_MAPPER, username));
+		return merge(results, comparator(Sort.unsorted()), 0, Integer.MAX_VALUE);
+	}
+
+	public List<MemberDto> findMemberDto() {
+		List<List<ShardedMember>> results = scatter(shard -> shard.query(SELECT + " order by m.member_id", ROW_MAPPER));
+		return merge(results, comparator(Sort.unsorted()), 0, Integer.MAX_VALUE).stream()
+				.map(ShardedMember::toDto)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * 각 shard 에서 offset + size 건을 같은 정렬로 가져와 merge 한 뒤 offset 만큼 버린다.
+	 * 깊은 페이지일수록 shard 마다 읽는 양이 늘어난다.
+	 * count 는 getPage 가 필요하다고 판단할 때만(마지막 페이지를 content 로 알 수 없을 때) 실행한다.
+	 */
+	public Page<ShardedMember> findAll(Pageable pageable) {
+		String orderBy = orderBy(pageable.getSort());
+		if (pageable.isUnpaged()) {
+			List<List<ShardedMember>> results = scatter(shard -> shard.query(SELECT + orderBy, ROW_MAPPER));
+			List<ShardedMember> content = merge(results, comparator(pageable.getSort()), 0, Integer.MAX_VALUE);
+			return PageableExecutionUtils.getPage(content, pageable, content::size);
+		}
+		long limit = pageable.getOffset() + pageable.getPageSize();
+		List<List<ShardedMember>> content = scatter(shard -> shard.query(SELECT + orderBy + " limit ?", ROW_MAPPER, limit));
+		List<ShardedMember> page = merge(content, comparator(pageable.getSort()), (int) pageable.getOffset(), pageable.getPageSize());
+		return PageableExecutionUtils.getPage(page, pageable, this::count);
+	}
+
+	public long count() {
+		return scatter(shard -> shard.queryForObject("select count(*) from member", Long.class)).stream()
+				.mapToLong(Long::longValue)
+				.sum();
+	}
+
+	private <T> List<T> scatter(Function<JdbcTemplate, T> query) {
+		return scatterAsync(query).join();
+	}
+
+	private <T> CompletableFuture<List<T>> scatterAsync(Function<JdbcTemplate, T> query) {
+		List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+		for (JdbcTemplate shard : shards) {
+			futures.add(CompletableFuture.supplyAsync(() -> query.apply(shard), executor));
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+				.thenApply(done -> futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+	}
+
+	// 각 목록은 comparator 순으로 정렬되어 있다.
+	static List<ShardedMember> merge(List<List<ShardedMember>> sorted, Comparator<ShardedMember> comparator, int skip, int limit) {
+		PriorityQueue<Cursor> heads = new PriorityQueue<>(Math.max(1, sorted.size()),
+				(a, b) -> comparator.compare(a.current(), b.current()));
+		for (List<ShardedMember> rows : sorted) {
+			if (!rows.isEmpty()) {
+				heads.add(new Cursor(rows));
+			}
+		}
+		List<ShardedMember> result = new ArrayList<>(Math.min(limit, 1024));
+		int skipped = 0;
+		while (!heads.isEmpty() && result.size() < limit) {
+			Cursor head = heads.poll();
+			if (skipped < skip) {
+				skipped++;
+			} else {
+				result.add(head.current());
+			}
+			if (head.advance()) {
+				heads.add(head);
+			}
+		}
+		return result;
+	}
+
+	// shard 간 순서를 확정하기 위해 항상 id 를 마지막 정렬 기준으로 붙인다.
+	static Comparator<ShardedMember> comparator(Sort sort) {
+		Comparator<ShardedMember> comparator = (a, b) -> 0;
+		for (Sort.Order order : sort) {
+			Comparator<ShardedMember> next = property(order.getProperty());
+			comparator = comparator.thenComparing(order.isAscending() ? next : next.reversed());
+		}
+		return comparator.thenComparingLong(ShardedMember::getId);
+	}
+
+	private static Comparator<ShardedMember> property(String property) {
+		switch (property) {
+		case "id":
+			return Comparator.comparingLong(ShardedMember::getId);
+		case "username":
+			// H2 기본 정렬과 같이 null 이 가장 작다
+			return Comparator.comparing(ShardedMember::getUsername, Comparator.nullsFirst(Comparator.naturalOrder()));
+		case "age":
+			return Comparator.comparingInt(ShardedMember::getAge);
+		default:
+			throw new IllegalArgumentException("unsupported sort property for sharded members: " + property);
+		}
+	}
+
+	private static String orderBy(Sort sort) {
+		StringBuilder orderBy = new StringBuilder(" order by ");
+		for (Sort.Order order : sort) {
+			orderBy.append(column(order.getProperty())).append(order.isAscending() ? " asc" : " desc").append(", ");
+		}
+		return orderBy.append("m.member_id asc").toString();
+	}
+
+	private static String column(String property) {
+		switch (property) {
+		case "id":
+			return "m.member_id";
+		case "username":
+			return "m.username";
+		case "age":
+			return "m.age";
+		default:
+			throw new IllegalArgumentException("unsupported sort property for sharded members: " + property);
+		}
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+	private static class Cursor {
+		private final List<ShardedMember> rows;
+		private int position;
+
+		Cursor(List<ShardedMember> rows) {
+			this.rows = rows;
+		}
+
+		ShardedMember current() {
+			return rows.get(position);
+		}
+
+		boolean advance() {
+			return ++position < rows.size();
+		}
+	}
+}
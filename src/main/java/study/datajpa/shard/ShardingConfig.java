@@ -0,0 +1,49 @@
+package study.datajpa.shard;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * member-sharding.enabled=true 일 때 member-sharding.urls 마다 풀을 만들고 ShardedMemberRepository 를 등록한다.
+ * shard 풀은 빈으로 등록하지 않아서 JPA / p6spy 가 쓰는 기본 datasource 와 섞이지 않는다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "member-sharding.enabled", havingValue = "true")
+public class ShardingConfig implements DisposableBean {
+
+	private final List<HikariDataSource> pools = new ArrayList<>();
+
+	@Bean(destroyMethod = "close")
+	public ShardedMemberRepository shardedMemberRepository(@Value("${member-sharding.urls}") List<String> urls,
+			@Value("${member-sharding.username:sa}") String username,
+			@Value("${member-sharding.password:}") String password,
+			@Value("${member-sharding.pool-size:4}") int poolSize) {
+		List<DataSource> dataSources = new ArrayList<>();
+		for (int i = 0; i < urls.size(); i++) {
+			HikariDataSource pool = new HikariDataSource();
+			pool.setPoolName("member-shard-" + i);
+			pool.setJdbcUrl(urls.get(i));
+			pool.setUsername(username);
+			pool.setPassword(password);
+			pool.setMaximumPoolSize(poolSize);
+			pools.add(pool);
+			dataSources.add(pool);
+		}
+		return new ShardedMemberRepository(dataSources);
+	}
+
+	@Override
+	public void destroy() {
+		pools.forEach(HikariDataSource::close);
+	}
+}
@@ -0,0 +1,57 @@
+package study.datajpa.startup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * HTTP 포트가 열린 뒤(ApplicationReadyEvent) 별도 스레드에서 쿼리 워밍업과 샘플 데이터 저장을 한다.
+ * (기존에는 MemberController 의 @PostConstruct 에서 한 건씩 저장해서 기동이 늦어졌다)
+ */
+@Component
+public class PostReadyInitializer {
+
+	private final QueryPlanWarmer queryPlanWarmer;
+	private final MemberRepository memberRepository;
+	private final StartupTimings startupTimings;
+	private final int seedCount;
+	private final int seedBatchSize;
+
+	public PostReadyInitializer(QueryPlanWarmer queryPlanWarmer, MemberRepository memberRepository,
+			StartupTimings startupTimings,
+			@Value("${member-seed.count:100}") int seedCount,
+			@Value("${member-seed.batch-size:50}") int seedBatchSize) {
+		this.queryPlanWarmer = queryPlanWarmer;
+		this.memberRepository = memberRepository;
+		this.startupTimings = startupTimings;
+		this.seedCount = seedCount;
+		this.seedBatchSize = seedBatchSize;
+	}
+
+	@Async
+	@EventListener(ApplicationReadyEvent.class)
+	public void onReady() {
+		long start = System.nanoTime();
+		int compiled = queryPlanWarmer.warmUp();
+		startupTimings.record("query plan warm up (" + compiled + " queries)", Duration.ofNanos(System.nanoTime() - start));
+
+		if (seedCount > 0) {
+			start = System.nanoTime();
+			List<Member> members = new ArrayList<>(seedCount);
+			for (int i = 0; i < seedCount; i++) {
+				members.add(new Member("user" + i, i));
+			}
+			memberRepository.saveAllBatched(members, seedBatchSize);
+			startupTimings.record("member seed (" + seedCount + " rows)", Duration.ofNanos(System.nanoTime() - start));
+		}
+	}
+}
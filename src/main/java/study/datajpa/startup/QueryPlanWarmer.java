@@ -0,0 +1,184 @@
+package study.datajpa.startup;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import lombok.extern.slf4j.Slf4j;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberCursor;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberSpec;
+
+/**
+ * 메서드 이름으로 만든 쿼리와 Specification 은 호출할 때마다 criteria 를 JPQL 로 바꾸고, 처음 보는 JPQL 이면 파싱해서
+ * hibernate query plan cache 에 올린다. 기동 후 쿼리를 한 번씩 실행해서 첫 요청이 그 비용을 내지 않도록 한다.
+ * - MemberRepository 의 쿼리 메서드는 repository 메타데이터(RepositoryInformation)에서 모두 찾는다. 새 쿼리 메서드도 자동으로 포함된다.
+ *   @Query 메서드는 실행하지 않고 JPQL(과 count 쿼리)만 컴파일하고(@Modifying 포함), 메서드 이름 쿼리는 더미 인자로 실행한다.
+ * - MemberRepositoryCustom 구현 메서드는 쓰기(saveAllBatched), 전체 조회(findMemberCustom, stream), native 쿼리가 섞여 있어
+ *   자동으로 실행하지 않고 아래 customQueries 에 적은 조회만 실행한다. (findAll(Specification) 포함)
+ * 라우팅 aspect(MemberIndexRoutingAspect)가 SQL 대신 인덱스로 보내지 않도록 읽기/쓰기 트랜잭션에서 실행하고 롤백한다.
+ */
+@Slf4j
+@Component
+public class QueryPlanWarmer {
+
+	// 문자열 파라미터는 username 뿐 아니라 findByAge(String, ..) 처럼 숫자 속성에도 바인딩되므로 숫자로 바뀌는 값을 쓴다.
+	private static final String NO_SUCH_VALUE = "-1";
+
+	private final ListableBeanFactory beanFactory;
+	private final MemberRepository memberRepository;
+	private final EntityManager em;
+	private final TransactionTemplate rollbackTransaction;
+	private final Map<String, Consumer<MemberRepository>> customQueries = new LinkedHashMap<>();
+	private volatile Map<String, Runnable> queries;
+
+	public QueryPlanWarmer(ListableBeanFactory beanFactory, MemberRepository memberRepository, EntityManager em,
+			PlatformTransactionManager transactionManager) {
+		this.beanFactory = beanFactory;
+		this.memberRepository = memberRepository;
+		this.em = em;
+		this.rollbackTransaction = new TransactionTemplate(transactionManager);
+
+		customQueries.put("findMemberKeyset", repository -> repository.findMemberKeyset(new MemberCursor(NO_SUCH_VALUE, 0L), 1));
+		customQueries.put("findByAgeWithCachedCount", repository -> repository.findByAgeWithCachedCount(-1, PageRequest.of(0, 1)));
+		customQueries.put("findByUsernameParallel", repository -> repository.findByUsernameParallel(NO_SUCH_VALUE, PageRequest.of(0, 1)));
+		customQueries.put("findAllCompiled", repository -> repository.findAllCompiled(MemberSpec.username(NO_SUCH_VALUE)));
+		customQueries.put("findAll(username)", repository -> repository.findAll(MemberSpec.username(NO_SUCH_VALUE)));
+		customQueries.put("findAll(username, teamName)",
+				repository -> repository.findAll(MemberSpec.username(NO_SUCH_VALUE).and(MemberSpec.teamName(NO_SUCH_VALUE))));
+	}
+
+	public int queryCount() {
+		return queries().size();
+	}
+
+	public Set<String> queryNames() {
+		return Collections.unmodifiableSet(queries().keySet());
+	}
+
+	public int warmUp() {
+		int warmed = 0;
+		for (Map.Entry<String, Runnable> query : queries().entrySet()) {
+			try {
+				rollbackTransaction.executeWithoutResult(status -> {
+					status.setRollbackOnly();
+					query.getValue().run();
+				});
+				warmed++;
+			} catch (RuntimeException e) {
+				log.warn("query plan warm up failed: MemberRepository.{}", query.getKey(), e);
+			}
+		}
+		return warmed;
+	}
+
+	private Map<String, Runnable> queries() {
+		if (queries == null) {
+			RepositoryInformation information = new Repositories(beanFactory).getRepositoryInformationFor(Member.class)
+					.orElseThrow(() -> new IllegalStateException("no repository for " + Member.class.getName()));
+			Map<String, Runnable> found = new LinkedHashMap<>();
+			for (Method method : information.getQueryMethods()) {
+				Runnable warmer = warmer(method, information.getDomainType());
+				if (warmer == null) {
+					log.warn("query plan warm up skipped (unsupported parameter type): {}", method);
+				} else {
+					found.put(name(method), warmer);
+				}
+			}
+			customQueries.forEach((name, query) -> found.put(name, () -> query.accept(memberRepository)));
+			queries = found;
+		}
+		return queries;
+	}
+
+	private Runnable warmer(Method method, Class<?> domainType) {
+		Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+		if (query != null && StringUtils.hasText(query.value())) {
+			return () -> {
+				compile(query.value(), query.nativeQuery());
+				if (StringUtils.hasText(query.countQuery())) {
+					compile(query.countQuery(), query.nativeQuery());
+				}
+			};
+		}
+		Class<?>[] types = method.getParameterTypes();
+		Object[] args = new Object[types.length];
+		for (int i = 0; i < types.length; i++) {
+			args[i] = argument(types[i], domainType);
+			if (args[i] == null) {
+				return null;
+			}
+		}
+		return () -> {
+			Object result = ReflectionUtils.invokeMethod(method, memberRepository, args);
+			if (result instanceof Stream) {
+				((Stream<?>) result).close();
+			}
+		};
+	}
+
+	private void compile(String query, boolean nativeQuery) {
+		if (nativeQuery) {
+			em.createNativeQuery(query);
+		} else {
+			em.createQuery(query);
+		}
+	}
+
+	private static Object argument(Class<?> type, Class<?> domainType) {
+		if (type == String.class) {
+			return NO_SUCH_VALUE;
+		}
+		if (type == int.class || type == Integer.class) {
+			return -1;
+		}
+		if (type == long.class || type == Long.class) {
+			return -1L;
+		}
+		if (type == Pageable.class) {
+			return PageRequest.of(0, 1);
+		}
+		if (type == Sort.class) {
+			return Sort.by("id");
+		}
+		// dynamic projection 은 엔티티 타입으로
+		if (type == Class.class) {
+			return domainType;
+		}
+		if (type.isAssignableFrom(List.class) && Collection.class.isAssignableFrom(type)) {
+			return List.of(NO_SUCH_VALUE);
+		}
+		return null;
+	}
+
+	private static String name(Method method) {
+		return method.getName() + Arrays.stream(method.getParameterTypes())
+				.map(Class::getSimpleName)
+				.collect(Collectors.joining(", ", "(", ")"));
+	}
+}
@@ -0,0 +1,61 @@
+package study.datajpa.startup;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 기동 단계별 소요 시간(ms). 컨텍스트 초기화 단계는 BufferingApplicationStartup 의 step 이름별 합계,
+ * 그 외 단계(쿼리 워밍업, 데이터 초기화)는 직접 기록한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupTimings {
+
+	private static final int TOP_STEPS = 15;
+
+	private final ApplicationStartup applicationStartup;
+	private final Map<String, Long> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+
+	public void record(String phase, Duration duration) {
+		phases.put(phase, duration.toMillis());
+		log.info("startup phase {} took {}ms", phase, duration.toMillis());
+	}
+
+	public Map<String, Long> snapshot() {
+		synchronized (phases) {
+			return new LinkedHashMap<>(phases);
+		}
+	}
+
+	@Order(0)
+	@EventListener(ApplicationReadyEvent.class)
+	public void onReady() {
+		if (applicationStartup instanceof BufferingApplicationStartup) {
+			StartupTimeline timeline = ((BufferingApplicationStartup) applicationStartup).getBufferedTimeline();
+			timeline.getEvents().stream()
+					.collect(Collectors.groupingBy(event -> event.getStartupStep().getName(),
+							Collectors.reducing(Duration.ZERO, StartupTimeline.TimelineEvent::getDuration, Duration::plus)))
+					.entrySet().stream()
+					.sorted(Map.Entry.<String, Duration>comparingByValue().reversed())
+					.limit(TOP_STEPS)
+					.forEach(step -> record(step.getKey(), step.getValue()));
+		}
+		record("ready (jvm uptime)", Duration.ofMillis(ManagementFactory.getRuntimeMXBean().getUptime()));
+	}
+}
@@ -0,0 +1,12 @@
+package study.datajpa.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends RuntimeException {
+
+	public BulkheadFullException(int queueCapacity) {
+		super("jdbc bulkhead queue is full (capacity " + queueCapacity + ")");
+	}
+}
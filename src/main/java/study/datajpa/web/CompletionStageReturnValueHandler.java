@@ -0,0 +1,35 @@
+package study.datajpa.web;
+
+import java.util.concurrent.CompletionStage;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.AsyncHandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.DeferredResultMethodReturnValueHandler;
+
+/**
+ * 반환 타입이 Object 인 핸들러가 실행 시점에 CompletionStage 를 돌려주면 비동기 요청으로 처리한다.
+ * (기본 핸들러는 선언된 반환 타입만 보므로 그대로 두면 CompletableFuture 자체가 JSON 으로 직렬화된다)
+ * 비동기가 아닌 값은 기존 @ResponseBody 처리로 간다.
+ */
+public class CompletionStageReturnValueHandler implements AsyncHandlerMethodReturnValueHandler {
+
+	private final DeferredResultMethodReturnValueHandler delegate = new DeferredResultMethodReturnValueHandler();
+
+	@Override
+	public boolean isAsyncReturnValue(Object returnValue, MethodParameter returnType) {
+		return returnValue instanceof CompletionStage;
+	}
+
+	@Override
+	public boolean supportsReturnType(MethodParameter returnType) {
+		return returnType.getParameterType().isAssignableFrom(CompletionStage.class);
+	}
+
+	@Override
+	public void handleReturnValue(Object returnValue, MethodParameter returnType,
+			ModelAndViewContainer mavContainer, NativeWebRequest webRequest) throws Exception {
+		delegate.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+	}
+}
@@ -0,0 +1,8 @@
+package study.datajpa.web;
+
+public enum ExecutionMode {
+	// 서블릿 스레드에서 그대로 JDBC 호출
+	BLOCKING,
+	// JDBC 풀 크기로 제한된 executor 에서 실행하고 서블릿 스레드는 바로 반납
+	ASYNC
+}
@@ -0,0 +1,93 @@
+package study.datajpa.web;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 컨트롤러의 JDBC 작업을 실행하는 곳.
+ * ASYNC 모드에서는 커넥션 풀 크기만큼의 스레드에서만 실행해서 풀 대기로 서블릿 스레드가 묶이지 않게 하고,
+ * 대기열이 차면 바로 503 으로 거절한다.
+ * 작업 안의 *Parallel 페이지 조회는 count 용 커넥션을 하나 더 쓰므로, 기본 동시 실행 수는 풀에서 parallel-page.concurrency 와
+ * web-execution.headroom(쓰기 요청, 스케줄러 등 bulkhead 밖에서 쓰는 커넥션)을 뺀 값이다.
+ * (모든 커넥션을 bulkhead 스레드가 잡고 count 를 기다리면 풀 타임아웃까지 멈춘다)
+ * BLOCKING 모드에서는 서블릿 스레드에서 바로 실행해서 값을 그대로 돌려주고, ASYNC 모드에서만 CompletableFuture 를 돌려준다.
+ * (컨트롤러 반환 타입이 Object 라도 CompletionStageReturnValueHandler 가 비동기로 처리한다)
+ */
+@Component
+public class JdbcBulkhead {
+
+	private final ExecutionMode mode;
+	private final int queueCapacity;
+	private final ThreadPoolExecutor executor;
+	// 작업 스레드에는 open-in-view 가 없으므로 작업 단위로 read-only 트랜잭션을 연다.
+	private final TransactionTemplate readOnlyTx;
+
+	public JdbcBulkhead(PlatformTransactionManager transactionManager,
+			@Value("${web-execution.mode:BLOCKING}") ExecutionMode mode,
+			@Value("${web-execution.concurrency:0}") int concurrency,
+			@Value("${web-execution.queue-capacity:200}") int queueCapacity,
+			@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+			@Value("${parallel-page.concurrency:4}") int parallelPageConcurrency,
+			@Value("${web-execution.headroom:2}") int headroom) {
+		if (concurrency <= 0) {
+			concurrency = poolSize - parallelPageConcurrency - headroom;
+		}
+		if (mode == ExecutionMode.ASYNC && (concurrency < 1 || concurrency + parallelPageConcurrency + headroom > poolSize)) {
+			throw new IllegalStateException("web-execution.concurrency (" + concurrency + ") + parallel-page.concurrency ("
+					+ parallelPageConcurrency + ") + web-execution.headroom (" + headroom
+					+ ") must fit in the connection pool (" + poolSize + ")");
+		}
+		this.mode = mode;
+		this.queueCapacity = queueCapacity;
+		this.readOnlyTx = new TransactionTemplate(transactionManager);
+		this.readOnlyTx.setReadOnly(true);
+		AtomicInteger seq = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), r -> {
+					Thread thread = new Thread(r, "jdbc-bulkhead-" + seq.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	// BLOCKING: work 의 결과, ASYNC: 결과를 담을 CompletableFuture
+	public Object execute(Supplier<?> work) {
+		if (mode == ExecutionMode.BLOCKING) {
+			return work.get();
+		}
+		try {
+			return CompletableFuture.supplyAsync(() -> readOnlyTx.execute(status -> work.get()), executor);
+		} catch (RejectedExecutionException e) {
+			throw new BulkheadFullException(queueCapacity);
+		}
+	}
+
+	public ExecutionMode getMode() {
+		return mode;
+	}
+
+	public int getActiveCount() {
+		return executor.getActiveCount();
+	}
+
+	public int getQueuedCount() {
+		return executor.getQueue().size();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+}
@@ -0,0 +1,17 @@
+package study.datajpa.web;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebExecutionConfig implements WebMvcConfigurer {
+
+	// JdbcBulkhead.execute 는 모드에 따라 값 또는 CompletableFuture 를 돌려준다
+	@Override
+	public void addReturnValueHandlers(List<HandlerMethodReturnValueHandler> handlers) {
+		handlers.add(new CompletionStageReturnValueHandler());
+	}
+}
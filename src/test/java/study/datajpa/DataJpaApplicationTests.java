@@ -1,15 +1,33 @@
 package study.datajpa;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
+import study.datajpa.startup.QueryPlanWarmer;
+
 @SpringBootTest
 //@EnableJpaRepositories(basePackages = "study.datajpa.repository") 스프링 부트는 필요X
 class DataJpaApplicationTests {
 
+	@Autowired
+	QueryPlanWarmer queryPlanWarmer;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void queryPlanWarmUp() {
+		// 메서드 이름 쿼리와 Specification 이 모두 실행된다.
+		assertThat(queryPlanWarmer.warmUp()).isEqualTo(queryPlanWarmer.queryCount());
+		// 쿼리 메서드는 repository 메타데이터에서 빠짐없이 찾는다.
+		assertThat(queryPlanWarmer.queryNames()).contains("findMemberByUsername(String)", "findByAge(String, Pageable)",
+				"findByAge(String, Sort)", "findUsernameOnlyByUsername(String)", "bulkAgePlus(int)",
+				"findProjectionsByUsername(String, Class)", "findByNames(Collection)", "findMemberKeyset");
+	}
+
 }
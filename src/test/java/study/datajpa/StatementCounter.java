@@ -0,0 +1,29 @@
+package study.datajpa;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * 블록 안에서 실행된 JDBC statement 수를 센다. N + 1 이 다시 생기면 테스트가 깨지도록 사용한다.
+ * (hibernate.generate_statistics 가 켜져 있어야 한다)
+ */
+public final class StatementCounter {
+
+	private StatementCounter() {
+	}
+
+	public static long count(EntityManager em, Runnable block) {
+		Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		long before = statistics.getPrepareStatementCount();
+		block.run();
+		return statistics.getPrepareStatementCount() - before;
+	}
+
+	public static void assertStatementCount(EntityManager em, long expected, Runnable block) {
+		assertThat(count(em, block)).as("executed statements").isEqualTo(expected);
+	}
+}
@@ -0,0 +1,35 @@
+package study.datajpa.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * web-execution.mode=ASYNC 에서는 Object 로 선언된 핸들러가 돌려준 CompletableFuture 를 비동기 요청으로 처리한다.
+ */
+@SpringBootTest(properties = "web-execution.mode=ASYNC")
+@AutoConfigureMockMvc
+class MemberControllerAsyncTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Test
+	void asyncModeCompletesFuture() throws Exception {
+		MvcResult result = mockMvc.perform(get("/members"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content").isArray());
+	}
+}
@@ -0,0 +1,46 @@
+package study.datajpa.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * web-execution.mode=BLOCKING(기본)에서는 비동기 요청 없이 값을 바로 응답한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Test
+	void blockingModeReturnsPlainValue() throws Exception {
+		mockMvc.perform(get("/members"))
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content").isArray());
+		mockMvc.perform(get("/members").param("mode", "keyset"))
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content").isArray());
+	}
+
+	@Test
+	void keysetRejectsInvalidSizeAndCursor() throws Exception {
+		mockMvc.perform(get("/members").param("mode", "keyset").param("size", "0"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/members").param("mode", "keyset").param("cursor", "abc"))
+				.andExpect(status().isBadRequest());
+		// max-page-size 를 넘는 size 는 잘라서 응답한다
+		mockMvc.perform(get("/members").param("mode", "keyset").param("size", String.valueOf(Integer.MAX_VALUE)))
+				.andExpect(status().isOk());
+	}
+}
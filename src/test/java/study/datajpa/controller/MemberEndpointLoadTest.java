@@ -0,0 +1,162 @@
+package study.datajpa.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.web.ExecutionMode;
+
+/**
+ * ./gradlew loadTest
+ * 모드별로 앱을 띄우고 /members 에 부하를 주면서 /hello 를 같이 호출한다.
+ * BLOCKING 에서는 JDBC 대기로 서블릿 스레드가 고갈되면 /hello 까지 느려지는 것을 본다.
+ */
+@Tag("load")
+public class MemberEndpointLoadTest {
+
+	private static final int MEMBER_CLIENTS = 56;
+	private static final int HELLO_CLIENTS = 8;
+	private static final int TOMCAT_THREADS = 32;
+	private static final Duration WARMUP = Duration.ofSeconds(3);
+	private static final Duration MEASURE = Duration.ofSeconds(10);
+
+	@Test
+	public void blockingVsAsync() throws Exception {
+		for (ExecutionMode mode : ExecutionMode.values()) {
+			run(mode);
+		}
+	}
+
+	private void run(ExecutionMode mode) throws Exception {
+		try (ConfigurableApplicationContext context = SpringApplication.run(DataJpaApplication.class,
+				"--server.port=0",
+				"--server.tomcat.threads.max=" + TOMCAT_THREADS,
+				"--web-execution.mode=" + mode,
+				"--spring.datasource.url=jdbc:h2:mem:load" + mode + ";DB_CLOSE_DELAY=-1",
+				"--decorator.datasource.p6spy.enable-logging=false",
+				"--logging.level.org.hibernate.SQL=warn",
+				"--member-seed.count=0")) {
+			seed(context);
+			int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+			HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+			IntFunction<URI> members = i -> URI.create("http://localhost:" + port + "/members?page=" + (i % 50 + 1));
+			IntFunction<URI> hello = i -> URI.create("http://localhost:" + port + "/hello");
+
+			drive(client, members, hello, WARMUP);
+			List<Result> results = drive(client, members, hello, MEASURE);
+
+			System.out.println("mode=" + mode + " /members " + results.get(0));
+			System.out.println("mode=" + mode + " /hello   " + results.get(1));
+			for (Result result : results) {
+				assertThat(result.errors).isZero();
+			}
+		}
+	}
+
+	private void seed(ConfigurableApplicationContext context) {
+		Team team = context.getBean(TeamRepository.class).save(new Team("loadTeam"));
+		List<Member> seed = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			seed.add(new Member("load" + i, i % 50, team));
+		}
+		context.getBean(MemberRepository.class).saveAllBatched(seed, 100);
+	}
+
+	// [0] = /members, [1] = /hello
+	private List<Result> drive(HttpClient client, IntFunction<URI> members, IntFunction<URI> hello, Duration duration)
+			throws Exception {
+		ExecutorService clients = Executors.newFixedThreadPool(MEMBER_CLIENTS + HELLO_CLIENTS);
+		long deadline = System.nanoTime() + duration.toNanos();
+		try {
+			List<Future<Result>> memberResults = new ArrayList<>();
+			List<Future<Result>> helloResults = new ArrayList<>();
+			for (int i = 0; i < MEMBER_CLIENTS; i++) {
+				memberResults.add(clients.submit(() -> loop(client, members, deadline)));
+			}
+			for (int i = 0; i < HELLO_CLIENTS; i++) {
+				helloResults.add(clients.submit(() -> loop(client, hello, deadline)));
+			}
+			return Arrays.asList(Result.merge(memberResults, duration), Result.merge(helloResults, duration));
+		} finally {
+			clients.shutdownNow();
+		}
+	}
+
+	private Result loop(HttpClient client, IntFunction<URI> uris, long deadline) {
+		Result result = new Result();
+		int i = 0;
+		while (System.nanoTime() < deadline) {
+			HttpRequest request = HttpRequest.newBuilder(uris.apply(i++)).timeout(Duration.ofSeconds(30)).build();
+			long start = System.nanoTime();
+			try {
+				int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+				if (status == 200) {
+					result.latencies.add(System.nanoTime() - start);
+				} else if (status == 503) {
+					result.rejected++;
+				} else {
+					result.errors++;
+				}
+			} catch (Exception e) {
+				result.errors++;
+			}
+		}
+		return result;
+	}
+
+	static class Result {
+		final List<Long> latencies = new ArrayList<>();
+		long rejected;
+		long errors;
+		double seconds;
+
+		static Result merge(List<Future<Result>> parts, Duration duration) throws Exception {
+			Result merged = new Result();
+			for (Future<Result> part : parts) {
+				Result result = part.get();
+				merged.latencies.addAll(result.latencies);
+				merged.rejected += result.rejected;
+				merged.errors += result.errors;
+			}
+			merged.latencies.sort(null);
+			merged.seconds = duration.toMillis() / 1000.0;
+			return merged;
+		}
+
+		double percentileMillis(double p) {
+			if (latencies.isEmpty()) {
+				return 0;
+			}
+			int index = (int) Math.ceil(p * latencies.size()) - 1;
+			return latencies.get(Math.max(0, index)) / 1_000_000.0;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("throughput=%.0f req/s p50=%.2fms p99=%.2fms rejected=%d errors=%d",
+					latencies.size() / seconds, percentileMillis(0.50), percentileMillis(0.99), rejected, errors);
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package study.datajpa.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * 서로 다른 in-memory H2 두 개를 primary / replica 로 쓴다.
+ * 복제는 replicate() 에서 primary 를 SCRIPT 로 떠서 replica 에 그대로 실행하는 것으로 흉내낸다.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+		"datasource-routing.enabled=true",
+		"datasource-routing.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+		"datasource-routing.max-lag=5s",
+		// 테스트에서 refresh() 로 직접 측정한다
+		"datasource-routing.check-interval=1h",
+		"member-seed.count=0" })
+class DataSourceRoutingTest {
+
+	@Autowired
+	MemberRepository memberRepository;
+	@Autowired
+	ReplicaLagMonitor lagMonitor;
+	@Autowired
+	DataSourceRoutingMetrics metrics;
+	@Autowired
+	PlatformTransactionManager transactionManager;
+	@Autowired
+	@Qualifier("primaryDataSource")
+	HikariDataSource primaryDataSource;
+	@Autowired
+	@Qualifier("replicaDataSource")
+	HikariDataSource replicaDataSource;
+
+	JdbcTemplate primary;
+	JdbcTemplate replica;
+
+	@BeforeEach
+	void setUp() {
+		primary = new JdbcTemplate(primaryDataSource);
+		replica = new JdbcTemplate(replicaDataSource);
+		memberRepository.deleteAllInBatch();
+		replicate();
+	}
+
+	@Test
+	void readOnlyGoesToReplicaAndWriteGoesToPrimary() {
+		long primaryBefore = metrics.getAcquired(DataSourceRoute.PRIMARY);
+		long replicaBefore = metrics.getAcquired(DataSourceRoute.REPLICA);
+
+		memberRepository.save(new Member("routed", 10));
+		assertThat(metrics.getAcquired(DataSourceRoute.PRIMARY)).isGreaterThan(primaryBefore);
+
+		// 아직 복제 전이므로 replica 에는 없다
+		assertThat(memberRepository.findReadOnlyByUsername("routed")).isNull();
+		assertThat(metrics.getAcquired(DataSourceRoute.REPLICA)).isGreaterThan(replicaBefore);
+
+		replicate();
+		assertThat(memberRepository.findReadOnlyByUsername("routed")).isNotNull();
+
+		// readOnly 트랜잭션 흐름 전체가 replica 로 간다
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		assertThat(readOnly.execute(status -> memberRepository.findByUsername("routed"))).hasSize(1);
+	}
+
+	@Test
+	void laggingReplicaFallsBackToPrimary() {
+		memberRepository.save(new Member("lagging", 10));
+		replica.update("update replication_heartbeat set beat_at = ? where id = 1",
+				new Timestamp(System.currentTimeMillis() - 60_000));
+		lagMonitor.refresh();
+
+		assertThat(lagMonitor.isReplicaUsable()).isFalse();
+		assertThat(lagMonitor.getLagMillis()).isGreaterThanOrEqualTo(5_000);
+
+		long fallbacks = metrics.getLagFallbacks();
+		// 복제되지 않았지만 primary 에서 읽으므로 보인다
+		assertThat(memberRepository.findReadOnlyByUsername("lagging")).isNotNull();
+		assertThat(metrics.getLagFallbacks()).isGreaterThan(fallbacks);
+	}
+
+	@Test
+	void missingHeartbeatMeansReplicaUnusable() {
+		replica.update("delete from replication_heartbeat");
+		lagMonitor.refresh();
+
+		assertThat(lagMonitor.isReplicaUsable()).isFalse();
+		assertThat(lagMonitor.getLagMillis()).isEqualTo(-1);
+	}
+
+	// primary 의 스키마와 데이터(heartbeat 포함)를 replica 로 복사하고 지연을 다시 잰다
+	private void replicate() {
+		lagMonitor.refresh();
+		List<String> script = primary.queryForList("script", String.class);
+		replica.execute("drop all objects");
+		for (String statement : script) {
+			if (!statement.startsWith("--")) {
+				replica.execute(statement);
+			}
+		}
+		lagMonitor.refresh();
+		assertThat(lagMonitor.isReplicaUsable()).isTrue();
+	}
+}
@@ -0,0 +1,51 @@
+package study.datajpa.entity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import study.datajpa.repository.ItemRepository;
+import study.datajpa.repository.TeamRepository;
+
+/**
+ * auditing.mode=OFF 면 감사 필드는 비어 있지만 Item(Persistable) 의 새 엔티티 판단은 그대로여야 한다.
+ */
+@Transactional
+@SpringBootTest(properties = "auditing.mode=OFF")
+class AuditingOffTest {
+
+	@Autowired
+	ItemRepository itemRepository;
+	@Autowired
+	TeamRepository teamRepository;
+	@PersistenceContext
+	EntityManager em;
+
+	@Test
+	void auditFieldsStayEmpty() {
+		Team team = teamRepository.save(new Team("offTeam"));
+		em.flush();
+
+		assertThat(team.getCreatedDate()).isNull();
+		assertThat(team.getUpdatedDate()).isNull();
+	}
+
+	@Test
+	void savedItemIsNotNew() {
+		Item item = itemRepository.save(new Item("off-1"));
+		em.flush();
+		em.clear();
+
+		Item found = itemRepository.findById("off-1").get();
+		assertThat(found.isNew()).isFalse();
+		// persist 가 아니라 merge 로 간다
+		assertThat(itemRepository.save(found)).isSameAs(found);
+		assertThat(item.isNew()).isFalse();
+	}
+}
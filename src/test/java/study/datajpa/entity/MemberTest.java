@@ -1,5 +1,7 @@
 package study.datajpa.entity;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 import java.util.List;
 
 import javax.persistence.EntityManager;
@@ -9,7 +11,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import study.datajpa.repository.MemberRepository;
 
@@ -22,6 +27,9 @@ public class MemberTest {
 
 	@Autowired
 	MemberRepository memberRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
 	
 	@Test
 	@Transactional
@@ -73,4 +81,47 @@ public class MemberTest {
 		System.out.println("findMember.createdBy = " + findMember.getCreatedBy());
 		System.out.println("findMember.updatedBy = " + findMember.getLastModifiedBy());
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void auditingPerTransaction() {
+		// given
+		Member member1 = memberRepository.save(new Member("audit1"));
+		Member member2 = memberRepository.save(new Member("audit2"));
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+
+		// when
+		em.persist(teamA);
+		em.persist(teamB);
+
+		// then
+		// 같은 트랜잭션에서는 auditor, 시간을 한 번만 구한다.
+		assertThat(member1.getCreatedBy()).isNotNull().isEqualTo(member2.getCreatedBy());
+		assertThat(teamA.getCreatedDate()).isNotNull().isEqualTo(teamB.getCreatedDate());
+	}
+
+	@Test
+	public void auditingPerTransactionRequiresNew() throws Exception {
+		// given
+		Team outer = new Team("outer");
+		em.persist(outer);
+		Thread.sleep(5);
+		TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+		requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+		// when
+		Team inner = requiresNew.execute(status -> {
+			Team team = new Team("inner");
+			em.persist(team);
+			status.setRollbackOnly();
+			return team;
+		});
+		Team outerAgain = new Team("outerAgain");
+		em.persist(outerAgain);
+
+		// then
+		// REQUIRES_NEW 는 바깥 트랜잭션의 시간을 쓰지 않고, 끝나면 바깥 트랜잭션 시간이 다시 쓰인다.
+		assertThat(inner.getCreatedDate()).isAfter(outer.getCreatedDate());
+		assertThat(outerAgain.getCreatedDate()).isEqualTo(outer.getCreatedDate());
+	}
+}
@@ -0,0 +1,180 @@
+package study.datajpa.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.StatementCounter;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+/**
+ * 인덱스는 커밋 후에 반영되므로 테스트 트랜잭션 없이 실행한다.
+ * 변경마다 인덱스 조회 결과가 SQL 로 읽은 전체 회원을 같은 조건으로 거른 결과와 같은지 확인한다.
+ * (findByUsername 등은 인덱스로 보내지므로 기대값은 findAll 로 만든다)
+ */
+@SpringBootTest(properties = { "member-index.enabled=true", "member-seed.count=0" })
+class MemberIndexTest {
+
+	private static final List<String> NAMES = Arrays.asList("idx0", "idx1", "idx2", "idx3", "idx4", "nobody");
+
+	@Autowired
+	MemberIndex memberIndex;
+	@Autowired
+	MemberRepository memberRepository;
+	@Autowired
+	TeamRepository teamRepository;
+	@Autowired
+	PlatformTransactionManager transactionManager;
+	@Autowired
+	EntityManager em;
+
+	TransactionTemplate tx;
+
+	@BeforeEach
+	void setUp() {
+		tx = new TransactionTemplate(transactionManager);
+		memberRepository.deleteAllInBatch();
+		Team team = teamRepository.save(new Team("idxTeam"));
+		Random random = new Random(24);
+		List<Member> members = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			members.add(new Member("idx" + random.nextInt(5), random.nextInt(40), i % 3 == 0 ? null : team));
+		}
+		memberRepository.saveAll(members);
+	}
+
+	@AfterEach
+	void tearDown() {
+		memberRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void matchesRepositoryAfterInsert() {
+		assertConsistent();
+	}
+
+	@Test
+	void followsUpdatesAndDeletes() {
+		List<Member> idx1 = memberRepository.findByUsername("idx1");
+		tx.executeWithoutResult(status -> {
+			Member changed = memberRepository.findById(idx1.get(0).getId()).get();
+			changed.setUsername("idx4");
+			changed.setAge(99);
+			memberRepository.delete(memberRepository.findById(idx1.get(1).getId()).get());
+		});
+		memberRepository.save(new Member("idx0", 7));
+
+		assertConsistent();
+		assertThat(memberIndex.findByAge(99)).extracting(IndexedMember::getUsername).containsExactly("idx4");
+	}
+
+	@Test
+	void ignoresRolledBackChanges() {
+		tx.executeWithoutResult(status -> {
+			memberRepository.save(new Member("idx3", 1000));
+			memberRepository.flush();
+			status.setRollbackOnly();
+		});
+
+		assertThat(memberIndex.findByAge(1000)).isEmpty();
+		assertConsistent();
+	}
+
+	@Test
+	void reloadsAfterBulkUpdate() {
+		long loads = memberIndex.getLoadCount();
+
+		memberRepository.bulkAgePlus(20);
+		assertConsistent();
+		// 지운 id 를 알 수 있으므로 다시 적재하지 않는다
+		memberRepository.deleteAllInBatch(memberRepository.findByUsername("idx2"));
+		assertConsistent();
+
+		assertThat(memberIndex.getLoadCount()).isEqualTo(loads + 1);
+	}
+
+	@Test
+	void repositoryLookupsAreServedByIndex() {
+		List<Long> expected = sqlIds(member -> "idx1".equals(member.getUsername()));
+		List<Long> olderThan10 = sqlIds(member -> "idx1".equals(member.getUsername()) && member.getAge() > 10);
+		// 처음 읽은 엔티티는 2차 캐시에 올라간다
+		assertThat(memberIds(memberRepository.findByUsername("idx1"))).containsExactlyInAnyOrderElementsOf(expected);
+
+		StatementCounter.assertStatementCount(em, 0, () -> {
+			assertThat(memberIds(memberRepository.findByUsername("idx1"))).containsExactlyInAnyOrderElementsOf(expected);
+			assertThat(memberIds(memberRepository.findByUsernameAndAgeGreaterThan("idx1", 10)))
+					.containsExactlyInAnyOrderElementsOf(olderThan10);
+		});
+	}
+
+	@Test
+	void readWriteTransactionSeesOwnChanges() {
+		tx.executeWithoutResult(status -> {
+			memberRepository.save(new Member("idxNew", 1));
+			// 커밋 전이라 인덱스에는 없지만 쓰기 트랜잭션 안에서는 SQL 로 조회한다
+			assertThat(memberRepository.findByUsername("idxNew")).hasSize(1);
+			status.setRollbackOnly();
+		});
+		assertThat(memberRepository.findByUsername("idxNew")).isEmpty();
+	}
+
+	private void assertConsistent() {
+		for (String name : NAMES) {
+			assertThat(ids(memberIndex.findByUsername(name)))
+					.containsExactlyInAnyOrderElementsOf(sqlIds(member -> name.equals(member.getUsername())));
+			assertThat(memberIds(memberRepository.findByUsername(name)))
+					.containsExactlyInAnyOrderElementsOf(sqlIds(member -> name.equals(member.getUsername())));
+			for (int age : new int[] { 0, 10, 25, 60 }) {
+				Predicate<Member> condition = member -> name.equals(member.getUsername()) && member.getAge() > age;
+				assertThat(ids(memberIndex.findByUsernameAndAgeGreaterThan(name, age)))
+						.containsExactlyInAnyOrderElementsOf(sqlIds(condition));
+				assertThat(memberIds(memberRepository.findByUsernameAndAgeGreaterThan(name, age)))
+						.containsExactlyInAnyOrderElementsOf(sqlIds(condition));
+			}
+		}
+		List<String> names = NAMES.subList(1, 4);
+		assertThat(ids(memberIndex.findByNames(names)))
+				.containsExactlyInAnyOrderElementsOf(sqlIds(member -> names.contains(member.getUsername())));
+		assertThat(memberIds(memberRepository.findByNames(names)))
+				.containsExactlyInAnyOrderElementsOf(sqlIds(member -> names.contains(member.getUsername())));
+		for (int age = 0; age < 70; age++) {
+			int expectedAge = age;
+			assertThat(ids(memberIndex.findByAge(age)))
+					.containsExactlyInAnyOrderElementsOf(sqlIds(member -> member.getAge() == expectedAge));
+		}
+		assertThat(memberIndex.size()).isEqualTo((int) memberRepository.count());
+	}
+
+	// 인덱스로 보내지 않는 findAll(SQL)을 같은 조건으로 거른다
+	private List<Long> sqlIds(Predicate<Member> condition) {
+		return memberRepository.findAll().stream().filter(condition).map(Member::getId).filter(Objects::nonNull)
+				.collect(Collectors.toList());
+	}
+
+	private static List<Long> ids(List<IndexedMember> members) {
+		return members.stream().map(IndexedMember::getId).collect(Collectors.toList());
+	}
+
+	private static List<Long> memberIds(List<Member> members) {
+		return members.stream().map(Member::getId).collect(Collectors.toList());
+	}
+}
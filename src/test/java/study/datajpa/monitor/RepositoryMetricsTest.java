@@ -0,0 +1,59 @@
+package study.datajpa.monitor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+
+@SpringBootTest
+public class RepositoryMetricsTest {
+
+	@Autowired
+	RepositoryMetrics repositoryMetrics;
+
+	@Autowired
+	MemberRepository memberRepository;
+
+	@Autowired
+	MemberJpaRepository memberJpaRepository;
+
+	@Test
+	public void recordPerRepositoryMethod() {
+		// given
+		repositoryMetrics.reset();
+
+		// when
+		for (int i = 0; i < 5; i++) {
+			memberRepository.count();
+			memberJpaRepository.count();
+		}
+		memberRepository.findUsernameList();
+
+		// then
+		Map<String, Map<String, Object>> snapshot = repositoryMetrics.snapshot();
+		assertThat(snapshot.get("MemberRepository.count(0)")).containsEntry("calls", 5L).containsEntry("statementsPerCall", 1.0);
+		assertThat(snapshot.get("MemberJpaRepository.count(0)")).containsEntry("calls", 5L);
+		Map<String, Object> usernameList = snapshot.get("MemberRepository.findUsernameList(0)");
+		assertThat(usernameList.get("rowsPerCall")).isEqualTo(usernameList.get("resultSizePerCall"));
+	}
+
+	@Test
+	public void latencyPercentiles() {
+		MethodMetrics metrics = new MethodMetrics("test");
+		for (int i = 0; i < 99; i++) {
+			metrics.record(10_000, 1, 1, 1, false); // 10us
+		}
+		metrics.record(5_000_000, 1, 1, 1, true); // 5ms
+
+		Map<String, Object> snapshot = metrics.snapshot();
+		assertThat(snapshot).containsEntry("calls", 100L).containsEntry("errors", 1L);
+		assertThat((Long) snapshot.get("p50Micros")).isBetween(10L, 20L);
+		assertThat((Long) snapshot.get("p99Micros")).isBetween(10L, 20L);
+	}
+}
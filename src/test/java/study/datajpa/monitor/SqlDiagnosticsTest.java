@@ -0,0 +1,75 @@
+package study.datajpa.monitor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+@SpringBootTest
+@Transactional
+public class SqlDiagnosticsTest {
+
+	@Autowired
+	SqlDiagnostics sqlDiagnostics;
+
+	@Autowired
+	MemberRepository memberRepository;
+
+	@PersistenceContext
+	EntityManager em;
+
+	@Test
+	public void detectRepeatedStatementInTransaction() {
+		// given
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			ids.add(memberRepository.save(new Member("nPlusOne" + i, i)).getId());
+		}
+		em.flush();
+		em.clear();
+		sqlDiagnostics.clear();
+
+		// when
+		for (Long id : ids) {
+			memberRepository.findById(id);
+		}
+
+		// then
+		assertThat(sqlDiagnostics.recent())
+				.filteredOn(diagnostic -> diagnostic.getType() == SqlDiagnostic.Type.N_PLUS_ONE)
+				.hasSize(1)
+				.first()
+				.satisfies(diagnostic -> {
+					assertThat(diagnostic.getRepositoryMethod()).isEqualTo("MemberRepository.findById(1)");
+					assertThat(diagnostic.getFingerprint()).contains("from member");
+				});
+	}
+
+	@Test
+	public void ringBufferIsBounded() {
+		SqlDiagnostics diagnostics = new SqlDiagnostics(4, 2);
+		for (int i = 0; i < 10; i++) {
+			diagnostics.report(new SqlDiagnostic(SqlDiagnostic.Type.SLOW_QUERY, "select " + i, "-", i));
+		}
+		assertThat(diagnostics.recent()).extracting(SqlDiagnostic::getValue).containsExactly(6L, 7L, 8L, 9L);
+		assertThat(diagnostics.aggregates()).hasSize(3).containsEntry("(dropped)", 8L);
+	}
+
+	@Test
+	public void fingerprint() {
+		assertThat(SqlFingerprint.of("select * from member where username = 'a''b' and age in (1, 2,3)"))
+				.isEqualTo("select * from member where username = ? and age in (?)");
+		assertThat(SqlFingerprint.isLimited(SqlFingerprint.of("select * from member limit 10"))).isTrue();
+	}
+}
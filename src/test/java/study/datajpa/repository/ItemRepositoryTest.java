@@ -1,11 +1,20 @@
 package study.datajpa.repository;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
 import study.datajpa.entity.Item;
+import study.datajpa.monitor.SqlCountListener;
 
 @Transactional
 @SpringBootTest
@@ -13,11 +22,57 @@ public class ItemRepositoryTest {
 
 	@Autowired
 	ItemRepository itemRepository;
+
+	@Autowired
+	SqlCountListener sqlCountListener;
+
+	@PersistenceContext
+	EntityManager em;
 	
 	@Test
 	public void save() {
 		Item item = new Item("A");
 		itemRepository.save(item);
 	}
-	
+
+	@Test
+	public void upsertAll() {
+		// given
+		itemRepository.upsertAll(List.of(new Item("upsert-1")), 100);
+
+		// when
+		int inserted = itemRepository.upsertAll(List.of(new Item("upsert-1"), new Item("upsert-2")), 100);
+
+		// then
+		assertThat(inserted).isEqualTo(1);
+		Item item = em.find(Item.class, "upsert-2");
+		assertThat(item.isNew()).isFalse(); // 조회한 엔티티
+	}
+
+	@Test
+	public void upsertAllVsSaveAll() {
+		int rows = 2000;
+		List<Item> saveAllItems = new ArrayList<>();
+		List<Item> upsertItems = new ArrayList<>();
+		for (int i = 0; i < rows; i++) {
+			saveAllItems.add(new Item("saveAll-" + i));
+			upsertItems.add(new Item("upsertAll-" + i));
+		}
+
+		long before = sqlCountListener.statements();
+		itemRepository.saveAll(saveAllItems);
+		em.flush();
+		long saveAllStatements = sqlCountListener.statements() - before;
+
+		before = sqlCountListener.statements();
+		int inserted = itemRepository.upsertAll(upsertItems, 500);
+		long upsertStatements = sqlCountListener.statements() - before;
+
+		// upsertAll 은 batch 크기(500)마다 executeBatch 한 번, saveAll 은 hibernate batch_size(50)마다 한 번
+		// (처리 시간 비교는 ItemUpsertBenchmark)
+		assertThat(upsertStatements).isEqualTo(rows / 500);
+		assertThat(upsertStatements).isLessThan(saveAllStatements);
+		assertThat(inserted).isEqualTo(rows);
+	}
+
 }
@@ -0,0 +1,66 @@
+package study.datajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import study.datajpa.entity.Member;
+
+// 청크마다 커밋하므로 테스트 트랜잭션 없이 실행한다.
+@SpringBootTest
+public class MemberBulkUpdateExecutorTest {
+
+	@Autowired
+	MemberBulkUpdateExecutor memberBulkUpdateExecutor;
+
+	@Autowired
+	MemberRepository memberRepository;
+
+	@Autowired
+	MemberJpaRepository memberJpaRepository;
+
+	@AfterEach
+	public void cleanUp() {
+		memberRepository.deleteAllInBatch(memberJpaRepository.findByPage(5001, 0, 1000));
+		memberRepository.deleteAllInBatch(memberJpaRepository.findByPage(5000, 0, 1000));
+	}
+
+	@Test
+	public void resumeAfterFailure() {
+		// given
+		List<Member> members = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			members.add(new Member("chunked" + i, 5000));
+		}
+		memberRepository.saveAllBatched(members, 25);
+
+		// when
+		// 첫 청크가 커밋된 뒤 실패
+		AtomicReference<BulkUpdateProgress> committed = new AtomicReference<>();
+		assertThatThrownBy(() -> memberBulkUpdateExecutor.bulkAgePlus(5000, 10, BulkUpdateProgress.start(), progress -> {
+			committed.set(progress);
+			if (progress.getUpdatedRows() > 0) {
+				throw new IllegalStateException("중간 실패");
+			}
+		})).isInstanceOf(IllegalStateException.class);
+		BulkUpdateProgress first = committed.get();
+
+		BulkUpdateProgress resumed = memberBulkUpdateExecutor.bulkAgePlus(5000, 10, first, progress -> {
+		});
+
+		// then
+		assertThat(first.getUpdatedRows()).isBetween(1L, 10L);
+		assertThat(resumed.isDone()).isTrue();
+		assertThat(resumed.getUpdatedRows()).isEqualTo(25);
+		assertThat(memberJpaRepository.totalCount(5001)).isEqualTo(25); // 두 번 증가한 회원 없음
+		assertThat(memberJpaRepository.totalCount(5000)).isZero();
+	}
+}
@@ -0,0 +1,87 @@
+package study.datajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.entity.Member;
+
+/**
+ * 같은 회원을 동시에 수정할 때 비관적 락(findLockByUsername)과 낙관적 락(@Version + 재시도) 모두 갱신 손실이 없는지 확인한다.
+ * (처리량 비교는 MemberContentionBenchmark)
+ */
+@SpringBootTest
+public class MemberContentionTest {
+
+	private static final int THREADS = 4;
+	private static final int UPDATES_PER_THREAD = 25;
+
+	@Autowired
+	MemberRepository memberRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@AfterEach
+	public void cleanUp() {
+		memberRepository.deleteAllInBatch(memberRepository.findListByUsername("contended"));
+	}
+
+	@Test
+	public void pessimisticAndOptimisticLoseNoUpdates() throws Exception {
+		// given
+		Member member = memberRepository.save(new Member("contended", 0));
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+		OptimisticLockRetryExecutor retryExecutor = new OptimisticLockRetryExecutor(transactionManager, 1000,
+				Duration.ofMillis(1), Duration.ofMillis(20), 2.0);
+
+		// when
+		run(() -> tx.executeWithoutResult(status -> {
+			Member locked = memberRepository.findLockByUsername("contended").get(0);
+			locked.setAge(locked.getAge() + 1);
+		}));
+		run(() -> retryExecutor.execute(() -> {
+			Member found = memberRepository.findById(member.getId()).get();
+			found.setAge(found.getAge() + 1);
+			return found;
+		}));
+
+		// then
+		int total = THREADS * UPDATES_PER_THREAD;
+		// 두 방식 모두 갱신 손실이 없어야 한다.
+		assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(total * 2);
+	}
+
+	private void run(Runnable update) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				for (int j = 0; j < UPDATES_PER_THREAD; j++) {
+					update.run();
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+	}
+}
@@ -0,0 +1,131 @@
+package study.datajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.unit.DataSize;
+
+import study.datajpa.dto.MemberDto;
+
+public class MemberDtoPageCacheTest {
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	public void roundTripFromOffHeap() {
+		MemberDtoPageCache cache = cache(DataSize.ofKilobytes(64));
+		PageRequest pageRequest = PageRequest.of(2, 3, Sort.by(Sort.Direction.DESC, "username"));
+		List<MemberDto> content = new ArrayList<>();
+		content.add(new MemberDto(1L, "회원1", "teamA"));
+		content.add(new MemberDto(2L, null, null));
+		content.add(new MemberDto(null, "member3", "팀B"));
+
+		Page<MemberDto> loaded = cache.get(pageRequest, () -> load(content, pageRequest, 100));
+		Page<MemberDto> cached = cache.get(pageRequest, () -> load(content, pageRequest, 100));
+
+		assertThat(loads.get()).isEqualTo(1);
+		assertThat(cached.getContent()).isEqualTo(loaded.getContent());
+		assertThat(cached.getTotalElements()).isEqualTo(100);
+		assertThat(cached.getPageable()).isEqualTo(pageRequest);
+		assertThat(cache.stats()).containsEntry("hit", 1L).containsEntry("miss", 1L);
+	}
+
+	@Test
+	public void keyIncludesSort() {
+		MemberDtoPageCache cache = cache(DataSize.ofKilobytes(64));
+		List<MemberDto> content = List.of(new MemberDto(1L, "a", null));
+
+		cache.get(PageRequest.of(0, 1, Sort.by("username")), () -> load(content, PageRequest.of(0, 1), 1));
+		cache.get(PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "username")), () -> load(content, PageRequest.of(0, 1), 1));
+
+		assertThat(loads.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedByBytes() {
+		// block 1KB 두 개 = 한 페이지에 한 block 이면 두 페이지만 들어간다
+		MemberDtoPageCache cache = new MemberDtoPageCache(DataSize.ofKilobytes(2), DataSize.ofKilobytes(1), Duration.ofMinutes(1));
+		List<MemberDto> content = List.of(new MemberDto(1L, "member", "team"));
+
+		cache.get(PageRequest.of(0, 1), () -> load(content, PageRequest.of(0, 1), 3));
+		cache.get(PageRequest.of(1, 1), () -> load(content, PageRequest.of(1, 1), 3));
+		// 0 번을 다시 써서 1 번이 가장 오래된 항목이 된다
+		cache.get(PageRequest.of(0, 1), () -> load(content, PageRequest.of(0, 1), 3));
+		cache.get(PageRequest.of(2, 1), () -> load(content, PageRequest.of(2, 1), 3));
+		assertThat(loads.get()).isEqualTo(3);
+
+		cache.get(PageRequest.of(0, 1), () -> load(content, PageRequest.of(0, 1), 3));
+		assertThat(loads.get()).isEqualTo(3);
+		cache.get(PageRequest.of(1, 1), () -> load(content, PageRequest.of(1, 1), 3));
+		assertThat(loads.get()).isEqualTo(4);
+		assertThat(cache.stats().get("eviction")).isGreaterThanOrEqualTo(2L);
+		assertThat(cache.stats().get("usedBytes")).isLessThanOrEqualTo(2048L);
+	}
+
+	@Test
+	public void pagesLargerThanBudgetAreNotCached() {
+		MemberDtoPageCache cache = new MemberDtoPageCache(DataSize.ofBytes(256), DataSize.ofBytes(128), Duration.ofMinutes(1));
+		List<MemberDto> content = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			content.add(new MemberDto((long) i, "member" + i, "team"));
+		}
+
+		cache.get(PageRequest.of(0, 50), () -> load(content, PageRequest.of(0, 50), 50));
+		cache.get(PageRequest.of(0, 50), () -> load(content, PageRequest.of(0, 50), 50));
+
+		assertThat(loads.get()).isEqualTo(2);
+		assertThat(cache.stats()).containsEntry("entries", 0L);
+	}
+
+	@Test
+	public void memberChangeInvalidates() {
+		MemberDtoPageCache cache = cache(DataSize.ofKilobytes(64));
+		List<MemberDto> content = List.of(new MemberDto(1L, "a", null));
+		PageRequest pageRequest = PageRequest.of(0, 1);
+
+		cache.get(pageRequest, () -> load(content, pageRequest, 1));
+		cache.onMemberChanged(MemberChangedEvent.of(1L));
+		cache.get(pageRequest, () -> load(content, pageRequest, 1));
+		assertThat(loads.get()).isEqualTo(2);
+
+		// 조회 중에 변경이 들어오면 그 결과는 캐시하지 않는다
+		cache.onMemberChanged(MemberChangedEvent.bulk());
+		cache.get(pageRequest, () -> {
+			cache.onMemberChanged(MemberChangedEvent.bulk());
+			return load(content, pageRequest, 1);
+		});
+		cache.get(pageRequest, () -> load(content, pageRequest, 1));
+		assertThat(loads.get()).isEqualTo(4);
+	}
+
+	@Test
+	public void rejectsSizesOutsideDirectBufferRange() {
+		// blocks * blockSize 가 int 를 넘는 크기는 기동 시점에 거절한다
+		assertThatThrownBy(() -> new MemberDtoPageCache(DataSize.ofGigabytes(2), DataSize.ofKilobytes(4), Duration.ofMinutes(1)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new MemberDtoPageCache(DataSize.ofKilobytes(4), DataSize.ofBytes(0), Duration.ofMinutes(1)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new MemberDtoPageCache(DataSize.ofKilobytes(1), DataSize.ofKilobytes(4), Duration.ofMinutes(1)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private MemberDtoPageCache cache(DataSize maxSize) {
+		return new MemberDtoPageCache(maxSize, DataSize.ofKilobytes(4), Duration.ofMinutes(1));
+	}
+
+	private Page<MemberDto> load(List<MemberDto> content, Pageable pageable, long total) {
+		loads.incrementAndGet();
+		return new PageImpl<>(content, pageable, total);
+	}
+}
@@ -1,15 +1,27 @@
 package study.datajpa.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.datajpa.StatementCounter.assertStatementCount;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -17,6 +29,7 @@ import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.transaction.annotation.Transactional;
@@ -346,6 +359,52 @@ public class MemberRepositoryTest {
 		Assertions.assertThat(result.size()).isEqualTo(1);
 	}
 
+	@Test
+	public void specCompiled() {
+		// given
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+		em.persist(new Member("m1", 0, teamA));
+		em.persist(new Member("m1", 0, teamB));
+		em.persist(new Member("m2", 0, teamA));
+		em.flush();
+		em.clear();
+
+		CompiledMemberSpec first = MemberSpec.username("m1").and(MemberSpec.teamName("teamA"));
+		CompiledMemberSpec second = MemberSpec.username("m2").and(MemberSpec.teamName("teamA"));
+		CompiledMemberSpec noTeam = MemberSpec.username("m1").and(MemberSpec.teamName(null));
+
+		// 값만 다르면 JPQL 은 같다
+		assertThat(first.toJpql()).isEqualTo(second.toJpql());
+		assertThat(first.toJpql()).isNotEqualTo(noTeam.toJpql());
+
+		// criteria 로 실행한 결과와 같아야 한다
+		for (CompiledMemberSpec spec : Arrays.asList(first, second, noTeam)) {
+			assertThat(memberRepository.findAllCompiled(spec)).extracting("id")
+					.containsExactlyInAnyOrderElementsOf(memberRepository.findAll(spec).stream().map(Member::getId).collect(Collectors.toList()));
+		}
+		assertThat(memberRepository.findAllCompiled(first)).hasSize(1);
+		assertThat(memberRepository.findAllCompiled(noTeam)).hasSize(2);
+	}
+
+	@Test
+	public void specCompiledNullUsernameMatchesNothing() {
+		// given
+		em.persist(new Member(null, 0));
+		em.flush();
+		em.clear();
+
+		// when
+		CompiledMemberSpec spec = MemberSpec.username(null);
+
+		// then
+		// = null 이라 username 이 없는 회원도 맞지 않는다. (is null 이 아니다)
+		assertThat(memberRepository.findAll(spec)).isEmpty();
+		assertThat(memberRepository.findAllCompiled(spec)).isEmpty();
+	}
+
 	@Test
 	public void queryByExample() {
 
@@ -418,4 +477,302 @@ public class MemberRepositoryTest {
 			System.out.println(memberProjection.getTeamName());
 		}
 	}
+
+	@Test
+	public void keysetPaging() {
+		// given
+		for (int i = 0; i < 50; i++) {
+			memberRepository.save(new Member("keyset" + (i % 5), i));
+		}
+		// username 이 null 인 회원도 마지막 페이지까지 빠지지 않아야 한다
+		for (int i = 0; i < 3; i++) {
+			memberRepository.save(new Member(null, i));
+		}
+		em.flush();
+		em.clear();
+		long total = memberRepository.count();
+		Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+		// when
+		Set<Long> ids = new HashSet<>();
+		List<Long> statementCounts = new ArrayList<>();
+		List<Long> loadCounts = new ArrayList<>();
+		MemberCursor cursor = null;
+		Slice<Member> slice;
+		do {
+			statistics.clear();
+			slice = memberRepository.findMemberKeyset(cursor, 10);
+			statementCounts.add(statistics.getPrepareStatementCount());
+			loadCounts.add(statistics.getEntityLoadCount());
+
+			for (Member member : slice) {
+				if (cursor != null) {
+					// (username desc, id desc) 순서로 커서 뒤의 값만 나와야 한다.
+					// (null 은 맨 뒤)
+					if (member.getUsername() == null || cursor.getUsername() == null) {
+						assertThat(member.getUsername() == null
+								&& (cursor.getUsername() != null || member.getId() < cursor.getId())).isTrue();
+					} else {
+						int compare = member.getUsername().compareTo(cursor.getUsername());
+						assertThat(compare < 0 || (compare == 0 && member.getId() < cursor.getId())).isTrue();
+					}
+				}
+				assertThat(ids.add(member.getId())).isTrue();
+				cursor = new MemberCursor(member.getUsername(), member.getId());
+			}
+			em.clear();
+		} while (slice.hasNext());
+
+		// then
+		assertThat(ids).hasSize((int) total);
+		// 페이지 깊이와 무관하게 페이지당 쿼리 1번(count 없음), 최대 size + 1건 로딩
+		assertThat(statementCounts).containsOnly(1L);
+		assertThat(loadCounts).allMatch(count -> count <= 11);
+	}
+
+	@Test
+	public void memberCursorToken() {
+		MemberCursor cursor = new MemberCursor("회원 user/1", 42L);
+		assertThat(MemberCursor.decode(cursor.encode())).isEqualTo(cursor);
+		MemberCursor nullUsername = new MemberCursor(null, 7L);
+		assertThat(MemberCursor.decode(nullUsername.encode())).isEqualTo(nullUsername);
+		assertThatThrownBy(() -> MemberCursor.decode("abc")).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void saveAllBatched() {
+		Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		int rows = 1000;
+		long previousStatements = Long.MAX_VALUE;
+
+		for (int batchSize : new int[] { 1, 10, 100 }) {
+			// given
+			List<Member> members = new ArrayList<>();
+			for (int i = 0; i < rows; i++) {
+				members.add(new Member("batch" + batchSize + "_" + i, i));
+			}
+
+			// when
+			statistics.clear();
+			int saved = memberRepository.saveAllBatched(members, batchSize);
+			long statements = statistics.getPrepareStatementCount();
+
+			// then
+			// batch 크기가 커질수록 DB 왕복(statement 수)이 줄어든다. (처리량은 MemberRepositoryBenchmark.save / saveAllBatched)
+			assertThat(saved).isEqualTo(rows);
+			assertThat(statements).isLessThan(previousStatements);
+			previousStatements = statements;
+		}
+		assertThat(memberRepository.findByUsername("batch100_999")).hasSize(1);
+	}
+
+	@Test
+	public void saveAllBatchedKeepsCallerEntitiesManaged() {
+		// given
+		Member editing = memberRepository.save(new Member("editing", 1));
+		List<Member> members = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			members.add(new Member("kept" + i, i));
+		}
+
+		// when
+		memberRepository.saveAllBatched(members, 10);
+
+		// then
+		// 저장한 엔티티만 detach 되고 호출 전부터 영속 상태였던 엔티티는 그대로 남는다.
+		assertThat(em.contains(editing)).isTrue();
+		assertThat(members).noneMatch(em::contains);
+	}
+
+	@Test
+	public void streamMemberCustom() {
+		// given
+		List<Member> members = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			members.add(new Member("stream" + i, i));
+		}
+		memberRepository.saveAllBatched(members, 100);
+		long total = memberRepository.count();
+		Session session = em.unwrap(Session.class);
+
+		// when
+		AtomicInteger count = new AtomicInteger();
+		AtomicInteger maxManaged = new AtomicInteger();
+		try (Stream<Member> stream = memberRepository.streamMemberCustom(50)) {
+			stream.forEach(member -> {
+				count.incrementAndGet();
+				maxManaged.accumulateAndGet(session.getStatistics().getEntityCount(), Math::max);
+			});
+		}
+
+		// then
+		// 소비한 엔티티는 바로 detach 되므로 영속성 컨텍스트에는 현재 한 건만 남는다.
+		assertThat((long) count.get()).isEqualTo(total);
+		assertThat(maxManaged.get()).isLessThanOrEqualTo(1);
+		assertThat(session.getStatistics().getEntityCount()).isZero();
+	}
+
+	@Test
+	public void secondLevelCache() {
+		// given
+		Member member = new Member("cached", 10);
+		memberRepository.save(member);
+		em.flush();
+		em.clear();
+		Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		// when
+		memberRepository.findById(member.getId()); // miss -> DB 조회 후 캐시에 저장
+		em.clear();
+		memberRepository.findById(member.getId()); // hit
+
+		// then
+		assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+
+		// bulk 연산은 영속성 컨텍스트와 2차 캐시를 모두 무시하므로 member region 이 비워져야 한다.
+		memberRepository.bulkAgePlus(10);
+		Member reloaded = memberRepository.findById(member.getId()).get();
+		assertThat(reloaded.getAge()).isEqualTo(11);
+	}
+
+	@Test
+	public void batchFetchTeam() {
+		// given
+		for (int i = 0; i < 3; i++) {
+			Team team = new Team("batchTeam" + i);
+			teamRepository.save(team);
+			memberRepository.save(new Member("batchMember", i, team));
+			memberRepository.save(new Member("batchMember", i + 10, team));
+		}
+		em.flush();
+		em.clear();
+		em.getEntityManagerFactory().getCache().evict(Team.class);
+
+		// when
+		List<Member> members = memberRepository.findByUsername("batchMember");
+
+		// then
+		// 영속성 컨텍스트, 2차 캐시 모두 비어 있어도 팀 3개가 in 쿼리 한 번으로 초기화된다.
+		assertStatementCount(em, 1, () -> members.forEach(member -> member.getTeam().getName()));
+
+		// 페이지 메서드는 @EntityGraph 로 팀을 같이 읽으므로 다시 비운 상태에서도 추가 쿼리가 없다.
+		em.clear();
+		em.getEntityManagerFactory().getCache().evict(Team.class);
+		Page<Member> page = memberRepository.findByUsername("batchMember", PageRequest.of(0, 4));
+		assertStatementCount(em, 0, () -> page.forEach(member -> member.getTeam().getName()));
+	}
+
+	@Test
+	public void batchFetchTeamMembers() {
+		// given
+		for (int i = 0; i < 3; i++) {
+			Team team = new Team("batchTeam" + i);
+			teamRepository.save(team);
+			memberRepository.save(new Member("batchMember", i, team));
+		}
+		em.flush();
+		em.clear();
+		em.getEntityManagerFactory().getCache().evict(Team.class);
+
+		// when
+		List<Team> teams = em.createQuery("select t from Team t where t.name like 'batchTeam%'", Team.class).getResultList();
+
+		// then
+		assertStatementCount(em, 1, () -> teams.forEach(team -> team.getMembers().size()));
+	}
+
+	@Test
+	public void findMemberDtoPage() {
+		// given
+		Team teamA = new Team("teamA");
+		teamRepository.save(teamA);
+		memberRepository.save(new Member("dtoMember", 10, teamA));
+		memberRepository.save(new Member("dtoMember", 20));
+		em.flush();
+		em.clear();
+
+		// when
+		Page<MemberDto> page = memberRepository.findMemberDtoPage(PageRequest.of(0, 2000, Sort.by(Sort.Direction.DESC, "username")));
+
+		// then
+		List<MemberDto> dtos = new ArrayList<>();
+		for (MemberDto dto : page) {
+			if (dto.getUsername().equals("dtoMember")) {
+				dtos.add(dto);
+			}
+		}
+		assertThat(dtos).extracting(MemberDto::getTeamName).containsExactlyInAnyOrder("teamA", null);
+		assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero(); // 관리되는 엔티티 없음
+	}
+
+	@Test
+	public void memberDtoPageAllocation() {
+		// given
+		List<Member> members = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			members.add(new Member("alloc" + i, i));
+		}
+		memberRepository.saveAllBatched(members, 100);
+		PageRequest pageRequest = PageRequest.of(0, 100, Sort.by(Sort.Direction.DESC, "username"));
+		com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		int iterations = 50;
+
+		// when
+		for (int i = 0; i < 10; i++) { // warm up
+			memberRepository.findAll(pageRequest).map(MemberDto::new);
+			memberRepository.findMemberDtoPage(pageRequest);
+			em.clear();
+		}
+
+		long before = threadMXBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < iterations; i++) {
+			memberRepository.findAll(pageRequest).map(MemberDto::new);
+			em.clear();
+		}
+		long entityBytes = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+		before = threadMXBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < iterations; i++) {
+			memberRepository.findMemberDtoPage(pageRequest);
+			em.clear();
+		}
+		long dtoBytes = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+		// then
+		// 엔티티 경로는 엔티티, 스냅샷, EntityEntry 를 만들고 나서 DTO 로 바꾸므로 DTO 경로보다 많이 할당한다.
+		// (처리 시간 비교는 MemberRepositoryBenchmark.findMemberPageAsEntities / findMemberDtoPage)
+		assertThat(dtoBytes).isLessThan(entityBytes);
+	}
+
+	@Test
+	public void openProjectionInSelect() {
+		// given
+		Team teamA = new Team("teamA");
+		Team unnamed = new Team(null);
+		em.persist(teamA);
+		em.persist(unnamed);
+		for (int i = 0; i < 200; i++) {
+			em.persist(new Member("openProjection", i, teamA));
+		}
+		em.persist(new Member("openProjection", 200, unnamed));
+		em.flush();
+		em.clear();
+
+		// when
+		List<String> spel = memberRepository.findProjectionsByUsername("openProjection", UsernameOnly.class).stream()
+				.map(UsernameOnly::getUsername)
+				.collect(Collectors.toList());
+		em.clear();
+		List<UsernameOnlyDto> dtos = new ArrayList<>();
+		assertStatementCount(em, 1, () -> dtos.addAll(memberRepository.findUsernameOnlyByUsername("openProjection")));
+
+		// then
+		// SpEL 과 같은 문자열이어야 한다. (팀 이름이 null 이면 "null")
+		assertThat(dtos).extracting(UsernameOnlyDto::getUsername)
+				.containsExactlyInAnyOrderElementsOf(spel)
+				.contains("openProjection 200 null");
+		// (처리 시간 비교는 MemberRepositoryBenchmark.findProjectionsOpen / findUsernameOnlySelectExpression)
+	}
 }
\ No newline at end of file
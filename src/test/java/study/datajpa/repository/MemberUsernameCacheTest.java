@@ -0,0 +1,71 @@
+package study.datajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import study.datajpa.entity.Member;
+
+@SpringBootTest
+public class MemberUsernameCacheTest {
+
+	@Autowired
+	MemberUsernameCache memberUsernameCache;
+
+	@Autowired
+	MemberRepository memberRepository;
+
+	@Autowired
+	EntityManagerFactory emf;
+
+	@Test
+	public void concurrentMissesCollapse() throws Exception {
+		// given
+		Member member = memberRepository.save(new Member("hotKey", 10));
+		Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+		int threads = 50;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+
+		// when
+		statistics.clear();
+		List<Future<Optional<String>>> results = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			results.add(executor.submit(() -> {
+				start.await();
+				return memberUsernameCache.get(member.getId());
+			}));
+		}
+		start.countDown();
+		for (Future<Optional<String>> result : results) {
+			assertThat(result.get()).contains("hotKey");
+		}
+		executor.shutdown();
+
+		// then
+		// 50개의 동시 요청이 하나의 쿼리로 합쳐진다.
+		assertThat(statistics.getQueryExecutionCount()).isEqualTo(1);
+
+		// save 하면 캐시가 무효화된다.
+		member.setUsername("hotKey2");
+		memberRepository.save(member);
+		assertThat(memberUsernameCache.get(member.getId())).contains("hotKey2");
+
+		memberRepository.delete(member);
+		assertThat(memberUsernameCache.get(member.getId())).isEmpty();
+	}
+}
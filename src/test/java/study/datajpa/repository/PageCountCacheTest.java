@@ -0,0 +1,88 @@
+package study.datajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.entity.Member;
+
+/**
+ * count 캐시는 커밋된 변경으로만 비워지므로 테스트 트랜잭션 없이 커밋된 데이터로 확인한다.
+ */
+@SpringBootTest
+class PageCountCacheTest {
+
+	@Autowired
+	MemberRepository memberRepository;
+	@Autowired
+	PageCountCache pageCountCache;
+	@Autowired
+	PlatformTransactionManager transactionManager;
+	@Autowired
+	EntityManagerFactory emf;
+
+	private final List<Member> saved = new ArrayList<>();
+
+	@AfterEach
+	void tearDown() {
+		memberRepository.deleteAllInBatch(saved);
+	}
+
+	@Test
+	void countIsCachedUntilCommittedChange() {
+		// given
+		pageCountCache.invalidateAll();
+		for (int i = 0; i < 5; i++) {
+			saved.add(memberRepository.save(new Member("pageCount" + i, 1000)));
+		}
+		Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+		PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "username"));
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+		// when
+		statistics.clear();
+		Page<Member> first = memberRepository.findByAgeWithCachedCount(1000, pageRequest);
+		long firstStatements = statistics.getPrepareStatementCount();
+
+		statistics.clear();
+		Page<Member> second = memberRepository.findByAgeWithCachedCount(1000, pageRequest.next());
+		long secondStatements = statistics.getPrepareStatementCount();
+
+		// then
+		assertThat(first.getTotalElements()).isEqualTo(5);
+		assertThat(second.getTotalElements()).isEqualTo(5);
+		assertThat(second.getContent().size()).isEqualTo(2);
+		assertThat(firstStatements).isEqualTo(2); // content + count
+		assertThat(secondStatements).isEqualTo(1); // count 캐시 사용
+
+		// 읽기/쓰기 트랜잭션 안에서는 자기 변경까지 다시 세고, 그 값을 캐시에 남기지 않는다.
+		tx.executeWithoutResult(status -> {
+			memberRepository.save(new Member("pageCountRolledBack", 1000));
+			assertThat(memberRepository.findByAgeWithCachedCount(1000, pageRequest).getTotalElements()).isEqualTo(6);
+			status.setRollbackOnly();
+		});
+		assertThat(memberRepository.findByAgeWithCachedCount(1000, pageRequest).getTotalElements()).isEqualTo(5);
+
+		// 커밋된 save, bulkAgePlus 이후에는 다시 count 한다.
+		saved.add(memberRepository.save(new Member("pageCount5", 1000)));
+		assertThat(memberRepository.findByAgeWithCachedCount(1000, pageRequest).getTotalElements()).isEqualTo(6);
+
+		tx.executeWithoutResult(status -> memberRepository.bulkAgePlus(1000));
+		assertThat(memberRepository.findByAgeWithCachedCount(1000, pageRequest).getTotalElements()).isEqualTo(0);
+	}
+}
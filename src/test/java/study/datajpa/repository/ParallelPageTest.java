@@ -0,0 +1,118 @@
+package study.datajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import study.datajpa.entity.Member;
+import study.datajpa.monitor.RepositoryMetrics;
+
+/**
+ * count 는 다른 커넥션에서 실행되므로 테스트 트랜잭션 없이 커밋된 데이터로 확인한다.
+ */
+@SpringBootTest(properties = "member-seed.count=0")
+class ParallelPageTest {
+
+	@Autowired
+	MemberRepository memberRepository;
+	@Autowired
+	ParallelPageExecutor parallelPageExecutor;
+	@Autowired
+	RepositoryMetrics repositoryMetrics;
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	void setUp() {
+		List<Member> members = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			members.add(new Member("parallel" + (i % 3), i % 2 == 0 ? 77 : 78));
+		}
+		memberRepository.saveAll(members);
+	}
+
+	@AfterEach
+	void tearDown() {
+		memberRepository.deleteAll(memberRepository.findAll().stream()
+				.filter(m -> m.getUsername() != null && m.getUsername().startsWith("parallel"))
+				.collect(Collectors.toList()));
+	}
+
+	@Test
+	void sameResultAsSequentialPage() {
+		PageRequest pageRequest = PageRequest.of(1, 4, Sort.by(Sort.Direction.DESC, "username"));
+		long parallelBefore = parallelPageExecutor.getParallelCounts();
+
+		Page<Member> parallel = memberRepository.findByAgeParallel(77, pageRequest);
+		// 같은 age 조건 쿼리의 순차 버전 (findByAge(int, Pageable) 의 @Query 는 age 조건이 없다)
+		Page<Member> sequential = memberRepository.findByAgeWithCachedCount(77, pageRequest);
+
+		assertThat(parallel.getTotalElements()).isEqualTo(sequential.getTotalElements()).isEqualTo(15);
+		assertThat(parallel.getContent()).extracting("id")
+				.containsExactlyElementsOf(sequential.getContent().stream().map(Member::getId).collect(Collectors.toList()));
+		assertThat(parallelPageExecutor.getParallelCounts()).isGreaterThan(parallelBefore);
+	}
+
+	@Test
+	void readWriteTransactionCountsOwnChanges() {
+		long parallelBefore = parallelPageExecutor.getParallelCounts();
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			for (int i = 0; i < 4; i++) {
+				memberRepository.save(new Member("parallel1", 1));
+			}
+			// 아직 flush 전인 4건도 count 에 들어가야 하므로 같은 트랜잭션에서 순차 실행한다
+			Page<Member> page = memberRepository.findByUsernameParallel("parallel1", PageRequest.of(1, 4));
+
+			assertThat(page.getTotalElements()).isEqualTo(14);
+			status.setRollbackOnly();
+		});
+		assertThat(parallelPageExecutor.getParallelCounts()).isEqualTo(parallelBefore);
+	}
+
+	@Test
+	void countStatementIsRecordedForCaller() {
+		repositoryMetrics.reset();
+
+		memberRepository.findByAgeParallel(77, PageRequest.of(1, 4));
+
+		// count 는 다른 스레드에서 실행되지만 호출한 메서드의 statement 로 집계된다
+		assertThat(repositoryMetrics.snapshot().get("MemberRepository.findByAgeParallel(2)"))
+				.containsEntry("statementsPerCall", 2.0);
+	}
+
+	@Test
+	void shortFirstPageSkipsCount() {
+		long skippedBefore = parallelPageExecutor.getSkippedCounts();
+
+		Page<Member> page = memberRepository.findByUsernameParallel("parallel1", PageRequest.of(0, 20));
+
+		assertThat(page.getTotalElements()).isEqualTo(10);
+		assertThat(page.getContent()).hasSize(10);
+		assertThat(parallelPageExecutor.getSkippedCounts()).isEqualTo(skippedBefore + 1);
+	}
+
+	@Test
+	void nativeProjectionPage() {
+		PageRequest pageRequest = PageRequest.of(1, 5, Sort.by("username"));
+
+		Page<MemberProjection> parallel = memberRepository.findByNativeProjectionParallel(pageRequest);
+
+		assertThat(parallel.getTotalElements()).isEqualTo(memberRepository.count());
+		assertThat(parallel.getContent()).hasSize(5);
+		assertThat(parallelPageExecutor.snapshot()).containsKeys("savedMillis", "discardedCounts");
+	}
+}
@@ -0,0 +1,84 @@
+package study.datajpa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.datajpa.StatementCounter.assertStatementCount;
+import static study.datajpa.StatementCounter.count;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+@SpringBootTest
+@Transactional
+public class TeamRepositoryTest {
+
+	@Autowired
+	TeamRepository teamRepository;
+
+	@Autowired
+	MemberRepository memberRepository;
+
+	@PersistenceContext
+	EntityManager em;
+
+	@Test
+	public void findTeamsWithMembers() {
+		// given
+		for (int i = 0; i < 5; i++) {
+			Team team = new Team("pagedTeam" + i);
+			teamRepository.save(team);
+			for (int j = 0; j < 3; j++) {
+				memberRepository.save(new Member("pagedMember" + j, j, team));
+			}
+		}
+		em.flush();
+		em.clear();
+		long total = teamRepository.count();
+
+		// when
+		AtomicReference<Page<Team>> result = new AtomicReference<>();
+		long statements = count(em,
+				() -> result.set(teamRepository.findTeamsWithMembers(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")))));
+		Page<Team> page = result.get();
+
+		// then
+		assertThat(statements).isEqualTo(3); // id 페이징, members fetch join, count
+		assertThat(page.getContent()).hasSize(2);
+		assertThat(page.getTotalElements()).isEqualTo(total);
+		assertThat(page.getContent().get(0).getId()).isGreaterThan(page.getContent().get(1).getId());
+		for (Team team : page.getContent()) {
+			assertThat(Hibernate.isInitialized(team.getMembers())).isTrue();
+		}
+		assertStatementCount(em, 0, () -> page.getContent().forEach(team -> assertThat(team.getMembers()).hasSize(3)));
+	}
+
+	@Test
+	public void findTeamsWithMembersSkipsTeamsDeletedBetweenQueries() {
+		// given: id 페이징 후 fetch join 전에 2 번 팀이 지워진 경우
+		Team first = new Team("first");
+		first.setId(1L);
+		Team third = new Team("third");
+		third.setId(3L);
+
+		// when
+		List<Team> content = TeamRepositoryImpl.inIdOrder(Arrays.asList(3L, 2L, 1L), Arrays.asList(first, third));
+
+		// then
+		assertThat(content).containsExactly(third, first);
+	}
+}
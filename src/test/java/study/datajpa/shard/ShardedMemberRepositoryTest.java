@@ -0,0 +1,138 @@
+package study.datajpa.shard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import study.datajpa.dto.MemberDto;
+
+class ShardedMemberRepositoryTest {
+
+	private static final int SHARDS = 3;
+
+	List<DataSource> dataSources;
+	ShardedMemberRepository repository;
+	List<ShardedMember> all;
+
+	@BeforeEach
+	void setUp() {
+		String run = UUID.randomUUID().toString();
+		dataSources = new ArrayList<>();
+		for (int i = 0; i < SHARDS; i++) {
+			dataSources.add(new DriverManagerDataSource("jdbc:h2:mem:shard" + i + "-" + run + ";DB_CLOSE_DELAY=-1", "sa", ""));
+		}
+		repository = new ShardedMemberRepository(dataSources);
+
+		List<Long> teams = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			teams.add(repository.saveTeam("team" + i));
+		}
+		for (int i = 0; i < 100; i++) {
+			Long teamId = i % 7 == 0 ? null : teams.get(i % teams.size());
+			repository.save("member" + (i % 13), i % 20, teamId);
+		}
+		all = repository.findAll(PageRequest.of(0, 1000)).getContent();
+	}
+
+	@AfterEach
+	void tearDown() {
+		repository.close();
+		for (DataSource dataSource : dataSources) {
+			new JdbcTemplate(dataSource).execute("shutdown");
+		}
+	}
+
+	@Test
+	void membersOfTeamLiveOnOneShard() {
+		assertThat(all).hasSize(100);
+		for (ShardedMember member : all) {
+			int shard = repository.shardForTeam(member.getTeamId());
+			assertThat(repository.shardForId(member.getId())).isEqualTo(shard);
+			Integer rows = new JdbcTemplate(dataSources.get(shard))
+					.queryForObject("select count(*) from member where member_id = ?", Integer.class, member.getId());
+			assertThat(rows).isEqualTo(1);
+		}
+	}
+
+	@Test
+	void singleShardLookups() {
+		ShardedMember any = all.get(42);
+		assertThat(repository.findById(any.getId())).hasValueSatisfying(found -> {
+			assertThat(found.getUsername()).isEqualTo(any.getUsername());
+			assertThat(found.getTeamName()).isEqualTo(any.getTeamName());
+		});
+
+		List<Long> expected = all.stream()
+				.filter(m -> m.getUsername().equals(any.getUsername()) && Objects.equals(m.getTeamId(), any.getTeamId()))
+				.map(ShardedMember::getId)
+				.collect(Collectors.toList());
+		assertThat(repository.findByUsername(any.getUsername(), any.getTeamId()))
+				.extracting(ShardedMember::getId)
+				.containsExactlyInAnyOrderElementsOf(expected);
+	}
+
+	@Test
+	void scatterGatherMatchesSingleSort() {
+		Sort sort = Sort.by(Sort.Order.desc("username"), Sort.Order.asc("age"));
+		Comparator<ShardedMember> expectedOrder = Comparator.comparing(ShardedMember::getUsername).reversed()
+				.thenComparingInt(ShardedMember::getAge)
+				.thenComparingLong(ShardedMember::getId);
+		List<Long> expected = all.stream().sorted(expectedOrder).map(ShardedMember::getId).collect(Collectors.toList());
+
+		List<Long> merged = new ArrayList<>();
+		for (int page = 0; page < 9; page++) {
+			Page<ShardedMember> result = repository.findAll(PageRequest.of(page, 12, sort));
+			assertThat(result.getTotalElements()).isEqualTo(100);
+			merged.addAll(result.map(ShardedMember::getId).getContent());
+		}
+		assertThat(merged).containsExactlyElementsOf(expected);
+	}
+
+	@Test
+	void scatterGatherWithoutTeamKey() {
+		assertThat(repository.findByUsername("member3"))
+				.extracting(ShardedMember::getId)
+				.containsExactlyElementsOf(all.stream()
+						.filter(m -> m.getUsername().equals("member3"))
+						.map(ShardedMember::getId)
+						.sorted()
+						.collect(Collectors.toList()));
+
+		List<MemberDto> dtos = repository.findMemberDto();
+		assertThat(dtos).hasSize(100);
+		assertThat(dtos).extracting(MemberDto::getId).isSorted();
+	}
+
+	@Test
+	void failedTeamInsertIsCompensated() {
+		// 마지막 shard 의 insert 가 실패하게 만든다
+		JdbcTemplate lastShard = new JdbcTemplate(dataSources.get(SHARDS - 1));
+		lastShard.execute("drop table member");
+		lastShard.execute("drop table team");
+
+		assertThatThrownBy(() -> repository.saveTeam("partial")).isInstanceOf(RuntimeException.class);
+
+		for (int i = 0; i < SHARDS - 1; i++) {
+			Integer teams = new JdbcTemplate(dataSources.get(i))
+					.queryForObject("select count(*) from team where name = 'partial'", Integer.class);
+			assertThat(teams).isZero();
+		}
+	}
+}